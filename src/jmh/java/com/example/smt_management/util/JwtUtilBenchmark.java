@@ -0,0 +1,80 @@
+package com.example.smt_management.util;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.example.smt_management.dtos.TokenClaims;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request cost of authenticating a JWT:
+ * - legacyPerRequest  what JwtFilter used to do: decode the secret, build a key and a parser,
+ *                     and verify the token twice (extractUsername, then validateToken)
+ * - parseUncached     one verification with the precomputed key and parser
+ * - parseCached       repeat token answered from the verified-token cache
+ *
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private String secret;
+    private String token;
+    private JwtUtil uncached;
+    private JwtUtil cached;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        secret = Base64.getEncoder().encodeToString(key);
+        uncached = new JwtUtil(secret, Duration.ofHours(10), 0);
+        cached = new JwtUtil(secret, Duration.ofHours(10), 10_000);
+        token = cached.generateToken("operator1", List.of(new SimpleGrantedAuthority("ROLE_OPERATOR")), 0);
+    }
+
+    @Benchmark
+    public boolean legacyPerRequest() {
+        String username = legacySubject();
+        return legacySubject().equals(username);
+    }
+
+    @Benchmark
+    public TokenClaims parseUncached() {
+        return uncached.parseToken(token);
+    }
+
+    @Benchmark
+    public TokenClaims parseCached() {
+        return cached.parseToken(token);
+    }
+
+    private String legacySubject() {
+        SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+}
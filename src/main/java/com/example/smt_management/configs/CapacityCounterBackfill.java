@@ -0,0 +1,31 @@
+package com.example.smt_management.configs;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.services.FloorService;
+import com.example.smt_management.services.LineService;
+
+/**
+ * Rebuild the floors.line_count and lines.machine_count capacity counters on startup,
+ * covering rows created before the counters existed or changed outside the services
+ */
+@Component
+public class CapacityCounterBackfill implements CommandLineRunner {
+
+    private final FloorService floorService;
+    private final LineService lineService;
+
+    public CapacityCounterBackfill(FloorService floorService, LineService lineService) {
+        this.floorService = floorService;
+        this.lineService = lineService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int floors = floorService.recountLineSlots();
+        int lines = lineService.recountMachineSlots();
+        AppLog.info("Recounted capacity counters for " + floors + " floor(s) and " + lines + " line(s)");
+    }
+}
@@ -1,5 +1,18 @@
 package com.example.smt_management.configs;
 
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -7,6 +20,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -14,52 +28,99 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.services.VerifiedCredentialCache;
+import com.example.smt_management.util.CircuitBreaker;
+import com.example.smt_management.util.ConcurrencyLimiter;
+import com.example.smt_management.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.util.ArrayList;
-import java.util.List;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
- * Custom authentication provider that validates credentials against external API
+ * Custom authentication provider that validates credentials against external API.
+ * Calls go through the pooled, time-bounded client from ExternalApiClientConfig and a
+ * circuit breaker: timeouts, connection failures and 5xx answers count against the API,
+ * and while the circuit is open logins fail at once with AuthenticationServiceException.
+ * Identical credential checks already in flight (double clicks, retries) share one call,
+ * keyed by an HMAC of username and password under a per-process random key, and at most
+ * external.api.max-concurrent calls run at once; further logins wait in a fair, bounded
+ * queue and are refused at once when it is full.
+ * With the opt-in VerifiedCredentialCache, repeat logins are answered locally and, while
+ * the API cannot be asked, recently verified credentials still sign in.
+ * Each call is timed as external.auth.requests (queue wait included), tagged with its outcome.
  */
 @Component
 public class ExternalApiAuthenticationProvider implements AuthenticationProvider {
 
-    @Value("${external.api.url:http://localhost:8090/api/login}")
-    private String externalApiUrl;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final String externalApiUrl;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final VerifiedCredentialCache credentialCache;
+    private final SingleFlight<ByteBuffer, String> inFlightChecks = new SingleFlight<>();
+    private final SecretKeySpec credentialKeySalt;
+    private final MeterRegistry meterRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ExternalApiAuthenticationProvider(
+            RestTemplate externalApiRestTemplate,
+            CircuitBreaker externalApiCircuitBreaker,
+            ConcurrencyLimiter externalApiConcurrencyLimiter,
+            VerifiedCredentialCache credentialCache,
+            MeterRegistry meterRegistry,
+            @Value("${external.api.url:http://localhost:8090/api/login}") String externalApiUrl) {
+        this.restTemplate = externalApiRestTemplate;
+        this.circuitBreaker = externalApiCircuitBreaker;
+        this.concurrencyLimiter = externalApiConcurrencyLimiter;
+        this.credentialCache = credentialCache;
+        this.meterRegistry = meterRegistry;
+        this.externalApiUrl = externalApiUrl;
+
+        byte[] salt = new byte[32];
+        new SecureRandom().nextBytes(salt);
+        this.credentialKeySalt = new SecretKeySpec(salt, "HmacSHA256");
+
+        Gauge.builder("external.auth.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Login API circuit: 0 closed, 1 open, 2 half-open").register(meterRegistry);
+        Gauge.builder("external.auth.active", concurrencyLimiter, ConcurrencyLimiter::active)
+                .description("Login API calls in progress").register(meterRegistry);
+        Gauge.builder("external.auth.queued", concurrencyLimiter, ConcurrencyLimiter::waiting)
+                .description("Logins waiting for a login API call slot").register(meterRegistry);
+        FunctionCounter.builder("external.auth.coalesced", inFlightChecks, SingleFlight::coalesced)
+                .description("Logins answered by an identical check already in flight").register(meterRegistry);
+    }
     
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String username = authentication.getName();
         String password = authentication.getCredentials().toString();
 
-        try {
-            // Call external API to validate credentials and get role
-            String role = validateWithExternalApi(username, password);
-            
-            if (role == null) {
-                throw new BadCredentialsException("Invalid username or password from external API");
-            }
+        // Same operator on another terminal: answer from recently verified credentials
+        String role = credentialCache.lookup(username, password).orElse(null);
+        if (role == null) {
+            role = checkWithExternalApi(username, password);
+        }
+        
+        if (role == null) {
+            throw new BadCredentialsException("Invalid username or password from external API");
+        }
 
-            // Get user authorities based on the role from API
-            List<GrantedAuthority> authorities = getUserAuthorities(role);
+        // Get user authorities based on the role from API
+        List<GrantedAuthority> authorities = getUserAuthorities(role);
 
-            // Create authenticated token
-            return new UsernamePasswordAuthenticationToken(username, password, authorities);
-            
-        } catch (BadCredentialsException e) {
-            throw e;
-        } catch (Exception e) {
-            System.err.println("Error calling external API: " + e.getMessage());
-            throw new BadCredentialsException("External API authentication failed: " + e.getMessage());
-        }
+        // Create authenticated token
+        return new UsernamePasswordAuthenticationToken(username, password, authorities);
     }
 
 //    @Override
@@ -90,58 +151,149 @@ public class ExternalApiAuthenticationProvider implements AuthenticationProvider
 //    }
 //    
 
+    /**
+     * Call external API to validate credentials and get role (shared with identical checks in
+     * flight); if the API cannot be asked, fall back to recently verified credentials
+     */
+    private String checkWithExternalApi(String username, String password) {
+        try {
+            return inFlightChecks.execute(credentialKey(username, password), () -> {
+                String role = validateWithExternalApi(username, password);
+                credentialCache.record(username, password, role);
+                return role;
+            });
+        } catch (AuthenticationServiceException e) {
+            Optional<String> fallback = credentialCache.fallback(username, password);
+            if (fallback.isEmpty()) {
+                throw e;
+            }
+            AppLog.warn("External login API unavailable, signed in " + username + " from verified credentials");
+            return fallback.get();
+        }
+    }
+
     /**
      * Call external API to validate username and password, returns role if valid
+     * @throws AuthenticationServiceException if too many logins are queued, the API is
+     *         unreachable, too slow or failing, or the circuit is open
      */
     private String validateWithExternalApi(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (!concurrencyLimiter.tryAcquire()) {
+            sample.stop(requestTimer("busy"));
+            throw new AuthenticationServiceException("Too many logins in progress, try again in a moment");
+        }
         try {
-            // Prepare request body
-            String jsonRequest = String.format("{\"username\":\"%s\",\"password\":\"%s\"}", 
-                                              username, password);
+            return callThroughCircuitBreaker(username, password, sample);
+        } finally {
+            concurrencyLimiter.release();
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+    private String callThroughCircuitBreaker(String username, String password, Timer.Sample sample) {
+        if (!circuitBreaker.tryAcquire()) {
+            sample.stop(requestTimer("short_circuited"));
+            throw new AuthenticationServiceException("External login API is unavailable, try again shortly");
+        }
+        String outcome = "error";
+        try {
+            String role = callExternalApi(username, password);
+            circuitBreaker.onSuccess();
+            outcome = role != null ? "success" : "rejected";
+            return role;
+        } catch (HttpClientErrorException e) {
+            // 4xx: the API is up and turned the request down
+            circuitBreaker.onSuccess();
+            outcome = "rejected";
+            return null;
+        } catch (ResourceAccessException e) {
+            circuitBreaker.onFailure();
+            // Connect, response and pool waits all end in an InterruptedIOException subtype
+            outcome = e.getCause() instanceof InterruptedIOException ? "timeout" : "error";
+            AppLog.warn("External login API call failed (" + outcome + "): " + e.getMessage());
+            throw new AuthenticationServiceException("External login API did not respond", e);
+        } catch (RestClientException | JsonProcessingException e) {
+            circuitBreaker.onFailure();
+            AppLog.warn("External login API call failed: " + e.getMessage());
+            throw new AuthenticationServiceException("External login API failed", e);
+        } catch (RuntimeException e) {
+            // Anything else (e.g. an unexpected response shape) still has to settle a half-open
+            // probe, or the breaker would stay half-open and refuse every login
+            circuitBreaker.onFailure();
+            AppLog.error("External login API call failed unexpectedly", e);
+            throw new AuthenticationServiceException("External login API failed", e);
+        } finally {
+            sample.stop(requestTimer(outcome));
+        }
+    }
 
-            HttpEntity<String> request = new HttpEntity<>(jsonRequest, headers);
+    /**
+     * Single-flight key: HMAC-SHA256 of the length-prefixed username and the password, so
+     * distinct credential pairs never share a key and no password is kept in memory
+     */
+    private ByteBuffer credentialKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(credentialKeySalt);
+            byte[] user = username.getBytes(StandardCharsets.UTF_8);
+            mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(user.length).array());
+            mac.update(user);
+            return ByteBuffer.wrap(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
 
-            // call external API
-            ResponseEntity<String> response = restTemplate.exchange(
-                externalApiUrl,
-                HttpMethod.POST,
-                request,
-                String.class
-            );
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("external.auth.requests").tag("outcome", outcome)
+                .description("Calls to the external login API").register(meterRegistry);
+    }
 
-            // Parse response
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                
-                // Check if authentication was successful
-                if (jsonNode.has("status")) {
-                    String status = jsonNode.get("status").asText();
-                    if ("ok".equalsIgnoreCase(status) || "success".equalsIgnoreCase(status)) {
-                        // Return the role from the response
-                        if (jsonNode.has("role")) {
-                            return jsonNode.get("role").asText();
-                        }
-                    }
-                    if("fail".equalsIgnoreCase(status)) {
-                    	if(jsonNode.has("message")) {
-                    		String messageString = jsonNode.get("message").asText();
-                    		AppLog.error("User Authentication failure: " + messageString, new BadCredentialsException(messageString));
-                    	}
+    /**
+     * One POST to the login API
+     * @return the role if the API accepted the credentials, null if it refused them
+     */
+    private String callExternalApi(String username, String password) throws JsonProcessingException {
+        // Prepare request body (serialised, so quotes in credentials cannot break the JSON)
+        String jsonRequest = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<String> request = new HttpEntity<>(jsonRequest, headers);
+
+        // call external API
+        ResponseEntity<String> response = restTemplate.exchange(
+            externalApiUrl,
+            HttpMethod.POST,
+            request,
+            String.class
+        );
+
+        // Parse response
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            JsonNode jsonNode = objectMapper.readTree(response.getBody());
+            
+            // Check if authentication was successful
+            if (jsonNode.has("status")) {
+                String status = jsonNode.get("status").asText();
+                if ("ok".equalsIgnoreCase(status) || "success".equalsIgnoreCase(status)) {
+                    // Return the role from the response
+                    if (jsonNode.has("role")) {
+                        return jsonNode.get("role").asText();
                     }
                 }
-                
+                if("fail".equalsIgnoreCase(status)) {
+                	if(jsonNode.has("message")) {
+                		String messageString = jsonNode.get("message").asText();
+                		AppLog.error("User Authentication failure: " + messageString, new BadCredentialsException(messageString));
+                	}
+                }
             }
-
-            return null; // Invalid credentials
-
-        } catch (Exception e) {
-            System.err.println("External API call failed: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+            
         }
+
+        return null; // Invalid credentials
     }
 
 
@@ -0,0 +1,98 @@
+package com.example.smt_management.configs;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.smt_management.util.CircuitBreaker;
+import com.example.smt_management.util.ConcurrencyLimiter;
+
+/**
+ * HTTP client for the external login API: pooled keep-alive connections and a bound on
+ * every wait (connect, response, free pooled connection), so a stalled API fails logins
+ * fast instead of pinning request threads. Logins are never retried automatically; the
+ * circuit breaker stops calling an API that keeps failing, and the concurrency limiter keeps
+ * a login storm (shift change) from piling more calls on the API than it can take.
+ */
+@Configuration
+public class ExternalApiClientConfig {
+
+    /** Closed with the context (the factory is a DisposableBean and owns the client) */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory externalApiRequestFactory(
+            @Value("${external.api.max-connections:20}") int maxConnections,
+            @Value("${external.api.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${external.api.response-timeout:PT3S}") Duration responseTimeout,
+            @Value("${external.api.pool-timeout:PT0.5S}") Duration poolTimeout,
+            @Value("${external.api.keep-alive:PT30S}") Duration keepAlive) {
+        return pooledRequestFactory(maxConnections, connectTimeout, responseTimeout, poolTimeout, keepAlive);
+    }
+
+    @Bean
+    public RestTemplate externalApiRestTemplate(HttpComponentsClientHttpRequestFactory externalApiRequestFactory) {
+        return new RestTemplate(externalApiRequestFactory);
+    }
+
+    @Bean
+    public CircuitBreaker externalApiCircuitBreaker(
+            @Value("${external.api.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${external.api.circuit.open-duration:PT30S}") Duration openDuration,
+            @Value("${external.api.circuit.half-open-probes:1}") int halfOpenProbes) {
+        return new CircuitBreaker("external-login-api", failureThreshold, openDuration, halfOpenProbes);
+    }
+
+    /**
+     * Keep max-concurrent at or below max-connections, or callers also queue for a pooled connection.
+     * Queued logins block request threads: max-concurrent + max-queued must stay well below
+     * server.tomcat.threads.max so a login storm cannot starve every other request.
+     */
+    @Bean
+    public ConcurrencyLimiter externalApiConcurrencyLimiter(
+            @Value("${external.api.max-concurrent:16}") int maxConcurrent,
+            @Value("${external.api.max-queued:50}") int maxQueued,
+            @Value("${external.api.queue-timeout:PT10S}") Duration queueTimeout) {
+        return new ConcurrencyLimiter(maxConcurrent, maxQueued, queueTimeout);
+    }
+
+    public static HttpComponentsClientHttpRequestFactory pooledRequestFactory(int maxConnections,
+            Duration connectTimeout, Duration responseTimeout, Duration poolTimeout, Duration keepAlive) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(connectTimeout))
+                .setSocketTimeout(timeout(responseTimeout))
+                // Re-check a pooled connection the server may have closed while it sat idle
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+        CloseableHttpClient client = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout(poolTimeout))
+                .setResponseTimeout(timeout(responseTimeout))
+                .build())
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+            .disableAutomaticRetries()
+            .build();
+        return new HttpComponentsClientHttpRequestFactory(client);
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.smt_management.configs;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache for the rarely changing plant hierarchy and roles:
+ * in-process Ehcache regions (through JCache) with bounded heap size and a time-to-live,
+ * built here so the bounds come from application.properties.
+ * Region names are referenced from the entity @Cache annotations; a missing region fails startup.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String FLOOR_REGION = "plant.floor";
+    public static final String LINE_REGION = "plant.line";
+    public static final String FLOOR_LINES_REGION = "plant.floor.lines";
+    public static final String ROLE_REGION = "security.role";
+    public static final String USER_ROLES_REGION = "security.user.roles";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /** Entity and collection regions, in the order they are reported */
+    public static final List<String> DOMAIN_REGIONS =
+        List.of(FLOOR_REGION, LINE_REGION, FLOOR_LINES_REGION, ROLE_REGION, USER_ROLES_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${cache.hibernate.ttl:PT1H}") Duration ttl,
+            @Value("${cache.hibernate.max-entries:10000}") long maxEntries,
+            @Value("${cache.hibernate.query-ttl:PT10M}") Duration queryTtl,
+            @Value("${cache.hibernate.query-max-entries:1000}") long queryMaxEntries) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+            .getCacheManager(URI.create("urn:smt-management:hibernate"), getClass().getClassLoader());
+        for (String region : DOMAIN_REGIONS) {
+            createRegion(cacheManager, region, maxEntries, ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryMaxEntries, ExpiryPolicyBuilder.timeToLiveExpiration(queryTtl));
+        // Timestamps decide whether cached query results are stale: they must outlive every result
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, 1000, ExpiryPolicyBuilder.noExpiration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheProperties(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Saving a line changes the cached lines collection of its floor (the inverse side)
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries,
+            ExpiryPolicy<Object, Object> expiry) {
+        CacheConfiguration<Object, Object> configuration = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+            .withExpiry(expiry)
+            .build();
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+}
@@ -5,12 +5,14 @@ import java.io.IOException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.example.smt_management.services.UserDetailsServiceImpl;
+import com.example.smt_management.dtos.TokenClaims;
+import com.example.smt_management.services.TokenRevocationCache;
 import com.example.smt_management.util.JwtUtil;
 
 import jakarta.servlet.FilterChain;
@@ -19,16 +21,20 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Authenticates requests that carry a JWT (Authorization header or JWT cookie) purely from
+ * its verified claims: no user lookup, only the cached revocation check.
+ */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationCache revocationCache;
 
     @Autowired
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, TokenRevocationCache revocationCache) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.revocationCache = revocationCache;
     }
 
     @Override
@@ -36,24 +42,28 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         
         String token = resolveToken(request);
-        String username = null;
+        TokenClaims claims = null;
 
-        // Extract username from token
+        // Verify signature and expiry and read identity, roles and account version
         if (token != null) {
             try {
-                username = jwtUtil.extractUsername(token);
+                claims = jwtUtil.parseToken(token);
             } catch (Exception e) {
                 // Invalid token - will be handled by continuing without authentication
-                logger.debug("Failed to extract username from token", e);
+                logger.debug("Failed to parse token", e);
             }
         }
 
         // If token is valid and no authentication exists in context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(token, userDetails)) {
-                // Set userDetails as principal, not null
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (revocationCache.isRevoked(claims)) {
+                logger.debug("Token of " + claims.getUsername() + " was revoked or the account deactivated");
+            } else {
+                // Principal rebuilt from the claims; the password is never needed after login
+                UserDetails userDetails = User.withUsername(claims.getUsername())
+                    .password("")
+                    .authorities(claims.getAuthorities())
+                    .build();
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(
                         userDetails,  
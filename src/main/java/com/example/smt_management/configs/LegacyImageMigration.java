@@ -0,0 +1,61 @@
+package com.example.smt_management.configs;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.services.ImageBlobService;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.StoredImage;
+
+/**
+ * Move images still stored in the legacy machines.image bytea column into the ImageStore.
+ * Rows are migrated one at a time so only a single image is ever held in memory.
+ */
+@Component
+public class LegacyImageMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final ImageBlobService imageBlobService;
+
+    public LegacyImageMigration(JdbcTemplate jdbcTemplate, ImageStore imageStore, ImageBlobService imageBlobService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.imageBlobService = imageBlobService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Integer legacyColumn = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'machines' AND column_name = 'image'",
+            Integer.class);
+        if (legacyColumn == null || legacyColumn == 0) {
+            return;
+        }
+
+        List<String> serials = jdbcTemplate.queryForList(
+            "SELECT machine_serial FROM machines WHERE image IS NOT NULL AND image_hash IS NULL",
+            String.class);
+
+        for (String serial : serials) {
+            byte[] image = jdbcTemplate.queryForObject(
+                "SELECT image FROM machines WHERE machine_serial = ?", byte[].class, serial);
+            StoredImage stored = imageStore.store(new ByteArrayInputStream(image));
+            jdbcTemplate.update(
+                "UPDATE machines SET image_hash = ?, image_content_type = ?, image = NULL WHERE machine_serial = ?",
+                stored.key(), "image/jpeg", serial);
+        }
+
+        if (!serials.isEmpty()) {
+            AppLog.info("Migrated " + serials.size() + " legacy machine images to the image store");
+            // Identical legacy images collapsed onto one blob; count their references
+            imageBlobService.reconcile();
+        }
+    }
+}
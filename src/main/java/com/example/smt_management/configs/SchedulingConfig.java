@@ -0,0 +1,12 @@
+package com.example.smt_management.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enable @Scheduled background housekeeping jobs
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -83,6 +83,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
                         .requestMatchers("/login", "/logout", "/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/dashboard").authenticated()
                         .requestMatchers("/dashboard-operator").hasRole("OPERATOR")
                         .requestMatchers("/dashboard-admin").hasRole("ADMIN")                        
@@ -134,8 +136,9 @@ public class SecurityConfig {
         return new ProviderManager(externalApiAuthenticationProvider);
     }
 
+    // Static: the external API provider (a constructor dependency here) needs it for its credential cache
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public static PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
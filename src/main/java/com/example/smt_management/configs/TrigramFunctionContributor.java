@@ -0,0 +1,30 @@
+package com.example.smt_management.configs;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Expose the pg_trgm operators to Criteria queries (registered through META-INF/services).
+ * trgm_match renders the bare % operator so the planner can use the gin_trgm_ops indexes.
+ */
+public class TrigramFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry()
+            .patternDescriptorBuilder("trgm_match", "(?1 % ?2)")
+            .setExactArgumentCount(2)
+            .setInvariantType(types.resolve(StandardBasicTypes.BOOLEAN))
+            .register();
+
+        functionContributions.getFunctionRegistry()
+            .patternDescriptorBuilder("similarity", "similarity(?1, ?2)")
+            .setExactArgumentCount(2)
+            .setInvariantType(types.resolve(StandardBasicTypes.DOUBLE))
+            .register();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.smt_management.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.smt_management.logging.AppLog;
+
+/**
+ * Install pg_trgm and the GIN expression indexes behind trigram search (search.mode=trigram).
+ * The indexes are on lower(col), the exact expression the search specifications compare, so
+ * both LIKE '%term%' and the % similarity operator can use them. If the extension cannot be
+ * created (e.g. missing privileges) search stays on plain LIKE.
+ */
+@Component
+public class TrigramSearchSetup implements CommandLineRunner {
+
+    private static final String[][] INDEXES = {
+        { "idx_machines_model_trgm", "machines", "model" },
+        { "idx_machines_company_trgm", "machines", "manufacturing_company" },
+        { "idx_machines_serial_trgm", "machines", "machine_serial" },
+        { "idx_lines_name_trgm", "lines", "line_name" },
+        { "idx_floors_name_trgm", "floors", "name" },
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean requested;
+    private volatile boolean available;
+
+    public TrigramSearchSetup(JdbcTemplate jdbcTemplate, @Value("${search.mode:like}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requested = "trigram".equalsIgnoreCase(mode);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!requested) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (String[] index : INDEXES) {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index[0] + " ON " + index[1]
+                        + " USING gin (lower(" + index[2] + ") gin_trgm_ops)");
+            }
+            available = true;
+            AppLog.info("Trigram search enabled");
+        } catch (DataAccessException e) {
+            AppLog.error("pg_trgm unavailable, falling back to LIKE search", e);
+        }
+    }
+
+    /**
+     * True once the extension and indexes are in place and trigram search was requested
+     */
+    public boolean isEnabled() {
+        return available;
+    }
+}
@@ -1,19 +1,28 @@
 package com.example.smt_management.controllers;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,6 +30,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.example.smt_management.dtos.FloorSummary;
+import com.example.smt_management.dtos.LineSummary;
+import com.example.smt_management.dtos.LookupOption;
 import com.example.smt_management.entities.Floor;
 import com.example.smt_management.entities.Line;
 import com.example.smt_management.entities.Machine;
@@ -29,8 +41,15 @@ import com.example.smt_management.enums.LaneType;
 import com.example.smt_management.enums.MachineType;
 import com.example.smt_management.services.FloorService;
 import com.example.smt_management.services.LineService;
+import com.example.smt_management.services.LookupCache.LookupType;
+import com.example.smt_management.services.LookupService;
+import com.example.smt_management.services.MachineImageService;
+import com.example.smt_management.services.MachineImageService.MachineImage;
 import com.example.smt_management.services.MachineService;
+import com.example.smt_management.storage.ImageVariant;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -50,7 +69,40 @@ public class CrudController {
     
     @Autowired
     private MachineService machineService;
-    
+
+    @Autowired
+    private MachineImageService machineImageService;
+
+    @Autowired
+    private LookupService lookupService;
+
+    /** Default list pagination: "offset" (numbered pages) or "keyset" (infinite scroll, no COUNT) */
+    @Value("${list.pagination.mode:offset}")
+    private String defaultPaginationMode;
+
+    // ==================== FORM BINDING ====================
+
+    /**
+     * Image fields are only set from an uploaded file, never from request parameters
+     */
+    @InitBinder("machine")
+    public void initMachineBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("imageHash", "imageContentType", "image*");
+    }
+
+    /**
+     * The slot counter and the child collection are maintained by the services
+     */
+    @InitBinder("floor")
+    public void initFloorBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("lineSlotsUsed", "lines*");
+    }
+
+    @InitBinder("line")
+    public void initLineBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("machineSlotsUsed", "machines*");
+    }
+
     // ==================== FLOOR ENDPOINTS ====================
     
     /**
@@ -62,24 +114,37 @@ public class CrudController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request,
             Model model) {
         
+        model.addAttribute("search", search);
+        model.addAttribute("CONTENT_TITLE", "Floor Management");
+        model.addAttribute("activeLink", "floors");
+        
+        if (isKeysetMode(mode)) {
+            Slice<FloorSummary> floorSlice = floorService.scrollFloorSummaries(search, after, size);
+            List<FloorSummary> floors = floorSlice.getContent();
+            model.addAttribute("floors", floors);
+            addKeysetAttributes(model, floorSlice, floors.isEmpty() ? null : floors.get(floors.size() - 1).getName(), size);
+            return isNextSliceRequest(request, after) ? "floors/list :: rows" : "floors/list";
+        }
+        
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<Floor> floorPage;
+        Page<FloorSummary> floorPage;
         
         if (search != null && !search.trim().isEmpty()) {
-            floorPage = floorService.searchFloors(search, pageable);
+            floorPage = floorService.searchFloorSummaries(search, pageable);
         } else {
-            floorPage = floorService.getAllFloors(pageable);
+            floorPage = floorService.getFloorSummaries(pageable);
         }
         
         model.addAttribute("floors", floorPage.getContent());
+        model.addAttribute("keyset", false);
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", floorPage.getTotalPages());
         model.addAttribute("totalItems", floorPage.getTotalElements());
-        model.addAttribute("search", search);
-        model.addAttribute("CONTENT_TITLE", "Floor Management");
-        model.addAttribute("activeLink", "floors");
         
         return "floors/list";
     }
@@ -198,30 +263,44 @@ public class CrudController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long floorId,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request,
             Model model) {
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("lineName").ascending());
-        Page<Line> linePage;
-        
-        if (search != null && !search.trim().isEmpty() || floorId != null) {
-            linePage = lineService.searchLines(search, null, null, floorId, pageable);
-        } else {
-            linePage = lineService.getAllLines(pageable);
-        }
-        
-        // Get all floors for filter dropdown
-        List<Floor> floors = floorService.getAllFloorsForDropdown();
-        
-        model.addAttribute("lines", linePage.getContent());
-        model.addAttribute("floors", floors);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", linePage.getTotalPages());
-        model.addAttribute("totalItems", linePage.getTotalElements());
         model.addAttribute("search", search);
         model.addAttribute("selectedFloorId", floorId);
         model.addAttribute("CONTENT_TITLE", "Line Management");
         model.addAttribute("activeLink", "lines");
         
+        if (isKeysetMode(mode)) {
+            Slice<LineSummary> lineSlice = lineService.scrollLineSummaries(search, floorId, after, size);
+            List<LineSummary> lines = lineSlice.getContent();
+            model.addAttribute("lines", lines);
+            addKeysetAttributes(model, lineSlice, lines.isEmpty() ? null : lines.get(lines.size() - 1).getLineName(), size);
+            if (isNextSliceRequest(request, after)) {
+                return "lines/list :: rows";
+            }
+        } else {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("lineName").ascending());
+            Page<LineSummary> linePage;
+            
+            if (search != null && !search.trim().isEmpty() || floorId != null) {
+                linePage = lineService.searchLineSummaries(search, null, null, floorId, pageable);
+            } else {
+                linePage = lineService.getLineSummaries(pageable);
+            }
+            
+            model.addAttribute("lines", linePage.getContent());
+            model.addAttribute("keyset", false);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", linePage.getTotalPages());
+            model.addAttribute("totalItems", linePage.getTotalElements());
+        }
+        
+        // Floor filter options are loaded through /lookup/floors; only the current one is rendered
+        model.addAttribute("selectedFloorLabel", lookupLabel(LookupType.FLOORS, floorId));
+        
         return "lines/list";
     }
     
@@ -231,10 +310,7 @@ public class CrudController {
     @GetMapping("/lines/create")
     @PreAuthorize("hasRole('ADMIN')")
     public String createLineForm(Model model) {
-        List<Floor> floors = floorService.getAllFloorsForDropdown();
-        
         model.addAttribute("line", new Line());
-        model.addAttribute("floors", floors);
         model.addAttribute("laneTypes", LaneType.values());
         model.addAttribute("directions", Direction.values());
         model.addAttribute("CONTENT_TITLE", "Create Line");
@@ -250,10 +326,9 @@ public class CrudController {
     @PreAuthorize("hasRole('ADMIN')")
     public String editLineForm(@PathVariable Long id, Model model) {
         Line line = lineService.getLineById(id);
-        List<Floor> floors = floorService.getAllFloorsForDropdown();
         
         model.addAttribute("line", line);
-        model.addAttribute("floors", floors);
+        model.addAttribute("selectedFloorLabel", lookupLabel(LookupType.FLOORS, line.getFloorId()));
         model.addAttribute("laneTypes", LaneType.values());
         model.addAttribute("directions", Direction.values());
         model.addAttribute("CONTENT_TITLE", "Edit Line");
@@ -351,30 +426,44 @@ public class CrudController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long lineId,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request,
             Model model) {
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("machineSerial").ascending());
-        Page<Machine> machinePage;
-        
-        if (search != null && !search.trim().isEmpty() || lineId != null) {
-            machinePage = machineService.searchMachines(search, null, null, null, lineId, pageable);
-        } else {
-            machinePage = machineService.getAllMachines(pageable);
-        }
-        
-        // Get all lines for filter dropdown
-        List<Line> lines = lineService.getAllLinesForDropdown();
-        
-        model.addAttribute("machines", machinePage.getContent());
-        model.addAttribute("lines", lines);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", machinePage.getTotalPages());
-        model.addAttribute("totalItems", machinePage.getTotalElements());
         model.addAttribute("search", search);
         model.addAttribute("selectedLineId", lineId);
         model.addAttribute("CONTENT_TITLE", "Machine Management");
         model.addAttribute("activeLink", "machines");
         
+        if (isKeysetMode(mode)) {
+            Slice<Machine> machineSlice = machineService.scrollMachines(search, lineId, after, size);
+            List<Machine> machines = machineSlice.getContent();
+            model.addAttribute("machines", machines);
+            addKeysetAttributes(model, machineSlice, machines.isEmpty() ? null : machines.get(machines.size() - 1).getMachineSerial(), size);
+            if (isNextSliceRequest(request, after)) {
+                return "machines/list :: rows";
+            }
+        } else {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("machineSerial").ascending());
+            Page<Machine> machinePage;
+            
+            if (search != null && !search.trim().isEmpty() || lineId != null) {
+                machinePage = machineService.searchMachines(search, null, null, null, lineId, pageable);
+            } else {
+                machinePage = machineService.getAllMachines(pageable);
+            }
+            
+            model.addAttribute("machines", machinePage.getContent());
+            model.addAttribute("keyset", false);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", machinePage.getTotalPages());
+            model.addAttribute("totalItems", machinePage.getTotalElements());
+        }
+        
+        // Line filter options are loaded through /lookup/lines; only the current one is rendered
+        model.addAttribute("selectedLineLabel", lookupLabel(LookupType.LINES, lineId));
+        
         return "machines/list";
     }
     
@@ -384,10 +473,7 @@ public class CrudController {
     @GetMapping("/machines/create")
     @PreAuthorize("hasRole('ADMIN')")
     public String createMachineForm(Model model) {
-        List<Line> lines = lineService.getAllLinesForDropdown();
-        
         model.addAttribute("machine", new Machine());
-        model.addAttribute("lines", lines);
         model.addAttribute("machineTypes", MachineType.values());
         model.addAttribute("CONTENT_TITLE", "Create Machine");
         model.addAttribute("activeLink", "machines");
@@ -402,10 +488,9 @@ public class CrudController {
     @PreAuthorize("hasRole('ADMIN')")
     public String editMachineForm(@PathVariable String machineSerial, Model model) {
         Machine machine = machineService.getMachineBySerial(machineSerial);
-        List<Line> lines = lineService.getAllLinesForDropdown();
         
         model.addAttribute("machine", machine);
-        model.addAttribute("lines", lines);
+        model.addAttribute("selectedLineLabel", lookupLabel(LookupType.LINES, machine.getLineId()));
         model.addAttribute("machineTypes", MachineType.values());
         model.addAttribute("CONTENT_TITLE", "Edit Machine");
         model.addAttribute("activeLink", "machines");
@@ -431,7 +516,7 @@ public class CrudController {
         
         try {
             if (imageFile != null && !imageFile.isEmpty()) {
-                machine.setImage(imageFile.getBytes());
+                machineImageService.attachImage(machine, imageFile);
             }
             machineService.saveMachine(machine);
             redirectAttributes.addFlashAttribute("success", "Machine saved successfully!");
@@ -456,13 +541,86 @@ public class CrudController {
         }
         return "redirect:/machines";
     }
-    
-//    @GetMapping("/view/{name}")
-//    public ResponseEntity<byte[]> viewImage(@PathVariable String name) {
-//        return imageService.getImage(name)
-//            .map(img -> ResponseEntity.ok()
-//                .contentType(MediaType.valueOf(img.getType()))
-//                .body(img.getData()))
-//            .orElse(ResponseEntity.notFound().build());
-//    }
+
+    /**
+     * Stream original machine image from the image store
+     */
+    @GetMapping("/machines/{machineSerial}/image")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public void machineImage(
+            @PathVariable String machineSerial,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        serveImage(machineSerial, ImageVariant.ORIGINAL, v, request, response);
+    }
+
+    /**
+     * Stream a downscaled machine image variant (thumb, preview)
+     */
+    @GetMapping("/machines/{machineSerial}/image/{variant}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public void machineImageVariant(
+            @PathVariable String machineSerial,
+            @PathVariable String variant,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ImageVariant imageVariant;
+        try {
+            imageVariant = ImageVariant.fromPath(variant);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serveImage(machineSerial, imageVariant, v, request, response);
+    }
+
+    // ==================== PAGINATION HELPERS ====================
+
+    private boolean isKeysetMode(String mode) {
+        String effective = StringUtils.hasText(mode) ? mode : defaultPaginationMode;
+        return "keyset".equalsIgnoreCase(effective);
+    }
+
+    /**
+     * HTMX "load more" requests only need the next rows, not the whole page
+     */
+    private boolean isNextSliceRequest(HttpServletRequest request, String after) {
+        return StringUtils.hasText(after) && request.getHeader("HX-Request") != null;
+    }
+
+    private void addKeysetAttributes(Model model, Slice<?> slice, String nextAfter, int size) {
+        model.addAttribute("keyset", true);
+        model.addAttribute("hasNext", slice.hasNext());
+        model.addAttribute("nextAfter", nextAfter);
+        model.addAttribute("size", size);
+    }
+
+    // ==================== LOOKUP HELPERS ====================
+
+    private String lookupLabel(LookupType type, Long id) {
+        return lookupService.find(type, id).map(LookupOption::getLabel).orElse(null);
+    }
+
+    /**
+     * Image URLs carry the content hash (?v=...), so a response for the requested
+     * version never changes and can be cached for a year. Anything else must be
+     * revalidated through its strong ETag. A variant that is still being generated
+     * is a 404, so nothing is cached for it and the next request picks it up.
+     */
+    private void serveImage(String machineSerial, ImageVariant variant, String version,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<MachineImage> found = machineImageService.findImage(machineSerial, variant);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        MachineImage image = found.get();
+        boolean immutable = image.hash().equals(version) && image.variant() == variant;
+        CacheControl cacheControl = immutable
+            ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+            : CacheControl.noCache().cachePrivate();
+        ImageResponseWriter.write(image, cacheControl, request, response);
+    }
 }
\ No newline at end of file
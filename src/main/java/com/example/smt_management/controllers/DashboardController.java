@@ -8,9 +8,9 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
-import com.example.smt_management.services.FloorService;
-import com.example.smt_management.services.LineService;
-import com.example.smt_management.services.MachineService;
+import com.example.smt_management.dtos.PlantStats;
+import com.example.smt_management.enums.MachineType;
+import com.example.smt_management.services.PlantStatistics;
 
 /**
  * Dashboard Controller - Handles dashboard views for Admin and Operator
@@ -19,13 +19,7 @@ import com.example.smt_management.services.MachineService;
 public class DashboardController {
 
     @Autowired
-    private FloorService floorService;
-
-    @Autowired
-    private LineService lineService;
-
-    @Autowired
-    private MachineService machineService;
+    private PlantStatistics plantStatistics;
 
     /**
      * Login page - FIXED: Removed model attribute that was causing the error
@@ -66,10 +60,7 @@ public class DashboardController {
     @GetMapping("/dashboard-admin")
     @PreAuthorize("hasRole('ADMIN')")
     public String adminDashboard(Model model) {
-        // Add statistics
-        model.addAttribute("totalFloors", floorService.getTotalCount());
-        model.addAttribute("totalLines", lineService.getTotalCount());
-        model.addAttribute("totalMachines", machineService.getTotalCount());
+        addStatistics(model);
 
         // Add page metadata
         model.addAttribute("CONTENT_TITLE", "Admin Dashboard");
@@ -85,10 +76,7 @@ public class DashboardController {
     @GetMapping("/dashboard-operator")
     @PreAuthorize("hasRole('OPERATOR')")
     public String operatorDashboard(Model model) {
-        // Add statistics
-        model.addAttribute("totalFloors", floorService.getTotalCount());
-        model.addAttribute("totalLines", lineService.getTotalCount());
-        model.addAttribute("totalMachines", machineService.getTotalCount());
+        addStatistics(model);
 
         // Add page metadata
         model.addAttribute("CONTENT_TITLE", "Operator Dashboard");
@@ -97,4 +85,16 @@ public class DashboardController {
 
         return "dashboard-operator";
     }
+
+    /**
+     * Totals come from the in-memory snapshot, so dashboard refreshes run no queries
+     */
+    private void addStatistics(Model model) {
+        PlantStats stats = plantStatistics.current();
+        model.addAttribute("totalFloors", stats.getTotalFloors());
+        model.addAttribute("totalLines", stats.getTotalLines());
+        model.addAttribute("totalMachines", stats.getTotalMachines());
+        model.addAttribute("plantStats", stats);
+        model.addAttribute("machineTypes", MachineType.values());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.smt_management.controllers;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.smt_management.enums.PlantDataset;
+import com.example.smt_management.services.PlantExportService;
+import com.example.smt_management.services.PlantExportService.Format;
+
+/**
+ * Plant configuration export (download), streamed while it is read:
+ * - GET /export/{floors|lines|machines}?format=csv|ndjson|json&images=false
+ * Machine images are embedded as base64 only with images=true. The files load back through /import.
+ */
+@Controller
+public class ExportController {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final PlantExportService exportService;
+
+    public ExportController(PlantExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/export/{dataset}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean images) {
+        PlantDataset source = PlantDataset.fromPath(dataset)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown dataset: " + dataset));
+        Format output = Format.fromParam(format)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format));
+
+        String filename = source.name().toLowerCase(Locale.ROOT) + "-" + LocalDateTime.now().format(STAMP)
+                + "." + output.extension();
+        StreamingResponseBody body = out -> exportService.export(source, output, images, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(output.contentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.smt_management.controllers;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.example.smt_management.services.GlobalSearchService;
+
+/**
+ * Header typeahead: GET /search?q= renders the hit list fragment swapped in by htmx
+ */
+@Controller
+public class GlobalSearchController {
+
+    private final GlobalSearchService globalSearchService;
+
+    public GlobalSearchController(GlobalSearchService globalSearchService) {
+        this.globalSearchService = globalSearchService;
+    }
+
+    @GetMapping("/search")
+    public String search(@RequestParam(name = "q", defaultValue = "") String query, Model model) {
+        model.addAttribute("query", query);
+        model.addAttribute("hits", globalSearchService.search(query));
+        return "fragments/search :: results";
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.smt_management.controllers;
+
+import java.io.IOException;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.smt_management.exceptions.ImageUploadException;
+import com.example.smt_management.services.MachineImageArchiveService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Machine image archive:
+ * - GET  /machines/images.zip  every machine image, one entry per serial, streamed as it is built
+ * - POST /machines/images.zip  raw ZIP body (admin only); entries are matched to machines by serial
+ */
+@Controller
+public class ImageArchiveController {
+
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
+    private final MachineImageArchiveService archiveService;
+
+    public ImageArchiveController(MachineImageArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping("/machines/images.zip")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public ResponseEntity<StreamingResponseBody> downloadArchive() {
+        StreamingResponseBody body = archiveService::exportArchive;
+        return ResponseEntity.ok()
+            .contentType(ZIP)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("machine-images.zip").build().toString())
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+
+    @PostMapping("/machines/images.zip")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> uploadArchive(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(archiveService.importArchive(request.getInputStream()));
+        } catch (ImageUploadException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+        }
+    }
+}
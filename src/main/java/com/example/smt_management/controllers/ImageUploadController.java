@@ -0,0 +1,116 @@
+package com.example.smt_management.controllers;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import com.example.smt_management.exceptions.ImageUploadException;
+import com.example.smt_management.services.ResumableUploadService;
+import com.example.smt_management.services.ResumableUploadService.UploadSession;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resumable machine image upload endpoints (admin only):
+ * - POST   /machines/{serial}/image/uploads  with Upload-Length and Upload-Content-Type headers
+ * - HEAD   /machines/image-uploads/{id}      returns the current Upload-Offset
+ * - PATCH  /machines/image-uploads/{id}      appends the raw body at Upload-Offset
+ * - DELETE /machines/image-uploads/{id}      cancels the upload
+ */
+@Controller
+public class ImageUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService uploadService;
+
+    public ImageUploadController(ResumableUploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    /**
+     * Start an upload; size and type limits are checked before any content is sent
+     */
+    @PostMapping("/machines/{machineSerial}/image/uploads")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> createUpload(
+            @PathVariable String machineSerial,
+            @RequestHeader(value = UPLOAD_LENGTH, defaultValue = "-1") long length,
+            @RequestHeader(value = "Upload-Content-Type", required = false) String contentType) throws IOException {
+        try {
+            UploadSession session = uploadService.create(machineSerial, length, contentType);
+            return ResponseEntity.created(URI.create("/machines/image-uploads/" + session.id()))
+                .headers(uploadHeaders(session))
+                .build();
+        } catch (ImageUploadException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Report how much of the upload has been received, so the client knows where to resume
+     */
+    @RequestMapping(value = "/machines/image-uploads/{id}", method = RequestMethod.HEAD)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> uploadStatus(@PathVariable String id) throws IOException {
+        return uploadService.find(id)
+            .map(session -> ResponseEntity.ok()
+                .headers(uploadHeaders(session))
+                .cacheControl(CacheControl.noStore())
+                .<String>build())
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Append the raw request body at the given offset
+     */
+    @PatchMapping("/machines/image-uploads/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> appendChunk(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request) throws IOException {
+        try {
+            UploadSession session = uploadService.append(id, offset, request.getInputStream(), request.getContentLengthLong());
+            return ResponseEntity.noContent()
+                .headers(uploadHeaders(session))
+                .build();
+        } catch (ImageUploadException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cancel an upload
+     */
+    @DeleteMapping("/machines/image-uploads/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> cancelUpload(@PathVariable String id) throws IOException {
+        uploadService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private HttpHeaders uploadHeaders(UploadSession session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(UPLOAD_OFFSET, Long.toString(session.offset()));
+        headers.set(UPLOAD_LENGTH, Long.toString(session.length()));
+        if (session.isComplete()) {
+            headers.set("Upload-Complete", "true");
+            headers.setETag("\"" + session.imageHash() + "\"");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.smt_management.controllers;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.smt_management.dtos.ImportProgress;
+import com.example.smt_management.enums.PlantDataset;
+import com.example.smt_management.exceptions.ImportException;
+import com.example.smt_management.services.PlantImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Bulk import endpoints (admin only):
+ * - POST /import/{floors|lines|machines}  raw CSV (text/csv) or JSON array / NDJSON body, answers 202 with the job
+ * - GET  /import/jobs/{id}                job progress: state, bytes and rows read, imported, rejected, row errors
+ * Lines reference their floor by name and machines their line by name, so import floors, then lines, then machines.
+ */
+@Controller
+public class ImportController {
+
+    private final PlantImportService importService;
+
+    public ImportController(PlantImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/import/{dataset}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startImport(
+            @PathVariable String dataset,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        PlantDataset target = PlantDataset.fromPath(dataset)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown dataset: " + dataset));
+        try {
+            ImportProgress job = importService.submit(target, contentType, request.getInputStream());
+            return ResponseEntity.accepted()
+                .location(URI.create("/import/jobs/" + job.getId()))
+                .body(job);
+        } catch (ImportException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportProgress> progress(@PathVariable String id) {
+        return importService.find(id)
+            .map(job -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(job))
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
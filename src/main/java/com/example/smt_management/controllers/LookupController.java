@@ -0,0 +1,76 @@
+package com.example.smt_management.controllers;
+
+import java.util.Locale;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.smt_management.dtos.LookupOption;
+import com.example.smt_management.services.LookupCache.LookupType;
+import com.example.smt_management.services.LookupService;
+import com.example.smt_management.services.LookupService.Matches;
+
+/**
+ * Floor and line options for searchable selects:
+ * - GET /lookup/{floors|lines}?q=prefix                  JSON id + label list (ETag follows the cache version)
+ * - same with HX-Request header and optional selected=id <option> fragment swapped into the select by htmx
+ */
+@Controller
+public class LookupController {
+
+    private final LookupService lookupService;
+
+    public LookupController(LookupService lookupService) {
+        this.lookupService = lookupService;
+    }
+
+    @GetMapping("/lookup/{type}")
+    @ResponseBody
+    public Matches lookup(@PathVariable String type, @RequestParam(name = "q", required = false) String prefix,
+            WebRequest request) {
+        LookupType lookupType = lookupType(type);
+        if (request.checkNotModified("\"" + lookupService.version() + "-" + (prefix == null ? "" : prefix.trim()) + "\"")) {
+            return null;
+        }
+        return lookupService.search(lookupType, prefix);
+    }
+
+    @GetMapping(value = "/lookup/{type}", headers = "HX-Request")
+    public String lookupOptions(
+            @PathVariable String type,
+            @RequestParam(name = "q", required = false) String prefix,
+            @RequestParam(required = false) Long selected,
+            @RequestParam(defaultValue = "Select...") String placeholder,
+            Model model) {
+        LookupType lookupType = lookupType(type);
+        Matches matches = lookupService.search(lookupType, prefix);
+
+        // Keep the current selection even when it is filtered out
+        LookupOption selectedOption = matches.options().stream()
+                .anyMatch(option -> option.getId().equals(selected))
+                ? null
+                : lookupService.find(lookupType, selected).orElse(null);
+
+        model.addAttribute("options", matches.options());
+        model.addAttribute("truncated", matches.truncated());
+        model.addAttribute("selected", selected);
+        model.addAttribute("selectedOption", selectedOption);
+        model.addAttribute("placeholder", placeholder);
+        return "fragments/lookup :: options";
+    }
+
+    private static LookupType lookupType(String type) {
+        try {
+            return LookupType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown lookup: " + type);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.smt_management.controllers;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.example.smt_management.dtos.CacheStatistics;
+import com.example.smt_management.dtos.FleetBreakdown;
+import com.example.smt_management.services.FleetStatisticsService;
+import com.example.smt_management.services.HibernateCacheService;
+
+/**
+ * Fleet statistics API for maintenance planning:
+ * - GET /statistics/fleet  machine counts by type, company, year bucket, floor and line (with line fill)
+ * - GET /statistics/cache  Hibernate second-level and query cache hits, misses and sizes per region
+ */
+@Controller
+public class StatisticsController {
+
+    private final FleetStatisticsService fleetStatisticsService;
+    private final HibernateCacheService hibernateCacheService;
+
+    public StatisticsController(FleetStatisticsService fleetStatisticsService,
+                                HibernateCacheService hibernateCacheService) {
+        this.fleetStatisticsService = fleetStatisticsService;
+        this.hibernateCacheService = hibernateCacheService;
+    }
+
+    @GetMapping("/statistics/fleet")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    @ResponseBody
+    public FleetBreakdown fleet() {
+        return fleetStatisticsService.getBreakdown();
+    }
+
+    @GetMapping("/statistics/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public CacheStatistics cache() {
+        return hibernateCacheService.statistics();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.smt_management.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Hibernate second-level and query cache counters since startup
+ */
+@Value
+public class CacheStatistics {
+	long queryCacheHits;
+	long queryCacheMisses;
+	long queryCachePuts;
+	List<Region> regions;
+	Instant collectedAt;
+
+	/**
+	 * Counters of one cache region
+	 */
+	@Value
+	public static class Region {
+		String name;
+		long hits;
+		long misses;
+		long puts;
+		long elementsInMemory;
+
+		/** Share of lookups answered from the cache, 0 before the first lookup */
+		public double getHitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.smt_management.dtos;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.example.smt_management.entities.Line;
+
+import lombok.Value;
+
+/**
+ * Fleet-wide machine counts for maintenance planning, computed by one grouped query
+ */
+@Value
+public class FleetBreakdown {
+	long totalMachines;
+	Map<String, Long> byType;
+	Map<String, Long> byCompany;
+	/** Keyed by the first year of each 5-year bucket */
+	Map<Integer, Long> byYearBucket;
+	List<Bucket> byFloor;
+	List<Bucket> byLine;
+	Instant computedAt;
+
+	/**
+	 * Count for one line or floor
+	 */
+	@Value
+	public static class Bucket {
+		Long id;
+		String label;
+		long count;
+
+		/** Share of the line's machine cap (Line.MAX_MACHINES) in use (meaningful for line buckets) */
+		public int getFillPercent() {
+			return (int) Math.min(100, count * 100 / Line.MAX_MACHINES);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.smt_management.dtos;
+
+import com.example.smt_management.entities.Floor;
+
+import lombok.Value;
+
+/**
+ * Read-only floor row for list pages, with the line count computed by a grouped query
+ * instead of initialising the lines collection
+ */
+@Value
+public class FloorSummary {
+	Long id;
+	String name;
+	long lineCount;
+
+	public static FloorSummary of(Floor floor, long lineCount) {
+		return new FloorSummary(floor.getId(), floor.getName(), lineCount);
+	}
+}
@@ -0,0 +1,16 @@
+package com.example.smt_management.dtos;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Outcome of a machine image archive import
+ */
+@Value
+public class ImageArchiveResult {
+	long entries;
+	long updated;
+	long skipped;
+	List<String> errors;
+}
@@ -0,0 +1,31 @@
+package com.example.smt_management.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.smt_management.enums.PlantDataset;
+
+import lombok.Value;
+
+/**
+ * Point-in-time view of a bulk import job, polled by the client
+ */
+@Value
+public class ImportProgress {
+	String id;
+	PlantDataset dataset;
+	String state;
+	long bytesTotal;
+	long bytesRead;
+	long rowsRead;
+	long rowsImported;
+	long rowsRejected;
+	List<String> errors;
+	String message;
+	Instant startedAt;
+	Instant finishedAt;
+
+	public int getPercent() {
+		return bytesTotal == 0 ? 0 : (int) Math.min(100, bytesRead * 100 / bytesTotal);
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.smt_management.dtos;
+
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.enums.Direction;
+import com.example.smt_management.enums.LaneType;
+
+import lombok.Value;
+
+/**
+ * Read-only line row for list pages, with the machine count computed by a grouped query
+ * instead of initialising the machines collection
+ */
+@Value
+public class LineSummary {
+	Long id;
+	String lineName;
+	Long floorId;
+	String floorName;
+	LaneType lane;
+	Direction direction;
+	long machineCount;
+
+	public static LineSummary of(Line line, long machineCount) {
+		return new LineSummary(line.getId(), line.getLineName(), line.getFloorId(), line.getFloorName(),
+				line.getLane(), line.getDirection(), machineCount);
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.smt_management.dtos;
+
+import lombok.Value;
+
+/**
+ * Minimal id + label pair for searchable selects, projected straight from JPQL
+ */
+@Value
+public class LookupOption {
+	Long id;
+	String label;
+}
@@ -0,0 +1,28 @@
+package com.example.smt_management.dtos;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.example.smt_management.enums.MachineType;
+
+import lombok.Value;
+
+/**
+ * Immutable snapshot of plant totals and breakdowns shown on the dashboards
+ */
+@Value
+public class PlantStats {
+	public static final PlantStats EMPTY = new PlantStats(0, 0, 0, Map.of(), Map.of(), Map.of(), null);
+
+	long totalFloors;
+	long totalLines;
+	long totalMachines;
+	Map<Long, Long> linesByFloor;
+	Map<Long, Long> machinesByLine;
+	Map<MachineType, Long> machinesByType;
+	Instant reconciledAt;
+
+	public long machinesOfType(MachineType type) {
+		return machinesByType.getOrDefault(type, 0L);
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.smt_management.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import lombok.Value;
+
+/**
+ * Verified contents of a JWT: everything needed to authenticate a request
+ */
+@Value
+public class TokenClaims {
+	String username;
+	List<GrantedAuthority> authorities;
+	/** Account version the token was issued against */
+	long tokenVersion;
+	Instant expiresAt;
+}
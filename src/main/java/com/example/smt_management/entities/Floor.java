@@ -3,9 +3,18 @@ package com.example.smt_management.entities;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.smt_management.configs.HibernateCacheConfig;
+import com.example.smt_management.services.GlobalSearchIndex;
+import com.example.smt_management.services.LookupCache;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -19,11 +28,17 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "floors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.FLOOR_REGION)
+@EntityListeners({ GlobalSearchIndex.class, LookupCache.class })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Floor {
     
+    /** Lines a floor can hold; enforced by FloorService and the import */
+    public static final int MAX_LINES = 10;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,8 +48,14 @@ public class Floor {
     @Size(min = 2, max = 100, message = "Floor name must be between 2 and 100 characters")
     private String name;
     
+    // Capacity counter kept by FloorRepository.reserveLineSlot/releaseLineSlot; never written from the entity
+    @Column(name = "line_count", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int lineSlotsUsed;
+    
     // FIXED: mappedBy should reference the field name in Line entity, not "id"
     @OneToMany(mappedBy = "floorMapping", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.FLOOR_LINES_REGION)
     private List<Line> lines = new ArrayList<>();
     
     /**
@@ -42,8 +63,8 @@ public class Floor {
      * @throws IllegalStateException if floor already has 10 lines
      */
     public void addLine(Line line) {
-        if (lines.size() >= 10) {
-            throw new IllegalStateException("A Floor can have at most 10 lines.");
+        if (lines.size() >= MAX_LINES) {
+            throw new IllegalStateException("A Floor can have at most " + MAX_LINES + " lines.");
         }
         lines.add(line);
         line.setFloorMapping(this);
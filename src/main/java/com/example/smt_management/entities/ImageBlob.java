@@ -0,0 +1,41 @@
+package com.example.smt_management.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reference count of a content-addressed image in the image store.
+ * Identical uploads share one blob; once no machine points at it any more
+ * (orphanedAt is set) it is garbage-collected after a grace period.
+ */
+@Entity
+@Table(name = "image_blobs", indexes = @Index(name = "idx_image_blobs_orphaned_at", columnList = "orphaned_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "orphaned_at")
+    private Instant orphanedAt;
+}
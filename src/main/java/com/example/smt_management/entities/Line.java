@@ -3,19 +3,30 @@ package com.example.smt_management.entities;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.smt_management.configs.HibernateCacheConfig;
 import com.example.smt_management.enums.Direction;
 import com.example.smt_management.enums.LaneType;
+import com.example.smt_management.services.GlobalSearchIndex;
+import com.example.smt_management.services.LookupCache;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
@@ -27,10 +38,20 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "lines")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.LINE_REGION)
+@EntityListeners({ GlobalSearchIndex.class, LookupCache.class })
+@NamedEntityGraph(name = Line.WITH_FLOOR, attributeNodes = @NamedAttributeNode("floorMapping"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Line {
+
+    /** Fetch plan for list pages and dropdowns that render floorName per row */
+    public static final String WITH_FLOOR = "Line.withFloor";
+
+    /** Machines a line can hold; enforced by LineService and the import, reported by the fleet breakdown */
+    public static final int MAX_MACHINES = 10;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -51,12 +72,17 @@ public class Line {
     @NotNull(message = "Direction is required")
     private Direction direction;
     
-    // FIXED: Proper @ManyToOne relationship with Floor
-    @ManyToOne
+    // FIXED: Proper @ManyToOne relationship with Floor (list queries fetch it through WITH_FLOOR)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "floor_id", nullable = false)
     @NotNull(message = "Floor mapping is required")
     private Floor floorMapping;
     
+    // Capacity counter kept by LineRepository.reserveMachineSlot/releaseMachineSlot; never written from the entity
+    @Column(name = "machine_count", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int machineSlotsUsed;
+    
     // FIXED: mappedBy should reference the field name in Machine entity, not "machineSerial"
     @OneToMany(mappedBy = "lineMapping", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Machine> machines = new ArrayList<>();
@@ -73,8 +99,8 @@ public class Line {
      * @throws IllegalStateException if line already has 10 machines
      */
     public void addMachine(Machine machine) {
-        if (machines.size() >= 10) {
-            throw new IllegalStateException("A Line can have at most 10 machines.");
+        if (machines.size() >= MAX_MACHINES) {
+            throw new IllegalStateException("A Line can have at most " + MAX_MACHINES + " machines.");
         }
         machines.add(machine);
         machine.setLineMapping(this);
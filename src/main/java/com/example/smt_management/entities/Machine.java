@@ -1,20 +1,22 @@
 package com.example.smt_management.entities;
 
-import java.sql.Types;
-
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.annotations.Type;
-
 import com.example.smt_management.enums.MachineType;
+import com.example.smt_management.services.GlobalSearchIndex;
+import com.example.smt_management.services.MachineImageRefCache;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -26,11 +28,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "machines")
+@Table(name = "machines", indexes = @Index(name = "idx_machines_image_hash", columnList = "image_hash"))
+@NamedEntityGraph(
+    name = Machine.WITH_LINE_AND_FLOOR,
+    attributeNodes = @NamedAttributeNode(value = "lineMapping", subgraph = "line"),
+    subgraphs = @NamedSubgraph(name = "line", attributeNodes = @NamedAttributeNode("floorMapping"))
+)
+@EntityListeners({ MachineImageRefCache.class, GlobalSearchIndex.class })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Machine {
+
+    /** Fetch plan for list pages that render lineName and floorName per row */
+    public static final String WITH_LINE_AND_FLOOR = "Machine.withLineAndFloor";
     
     @Id
     @Column(unique = true, nullable = false)
@@ -59,14 +70,15 @@ public class Machine {
     @Size(min = 2, max = 100, message = "Manufacturing company must be between 2 and 100 characters")
     private String manufacturingCompany;
     
-    @Lob
-    @Column(name = "image", columnDefinition = "bytea")
-//    @Type("org.hibernate.type.BinaryType")
-    @JdbcTypeCode(Types.BINARY)
-    private byte[] image;
+    // Image bytes live in the ImageStore, the row only references them by SHA-256
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_content_type", length = 100)
+    private String imageContentType;
     
-    // ManyToOne relationship with Line
-    @ManyToOne
+    // ManyToOne relationship with Line (list queries fetch it through WITH_LINE_AND_FLOOR)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "line_id", nullable = false)
     @NotNull(message = "Line mapping is required")
     private Line lineMapping;
@@ -110,14 +122,7 @@ public class Machine {
      * Check if machine has image
      */
     public boolean hasImage() {
-        return image != null && image.length > 0;
-    }
-
-    public String getImageBase64() {
-        if (hasImage()) {
-            return java.util.Base64.getEncoder().encodeToString(image);
-        }
-        return null;
+        return imageHash != null && !imageHash.isEmpty();
     }
     
     
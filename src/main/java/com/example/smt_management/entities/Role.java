@@ -1,5 +1,11 @@
 package com.example.smt_management.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.smt_management.configs.HibernateCacheConfig;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -14,6 +20,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.ROLE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,10 +1,19 @@
 package com.example.smt_management.entities;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.smt_management.configs.HibernateCacheConfig;
+import com.example.smt_management.services.TokenRevocationCache;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -19,6 +28,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(TokenRevocationCache.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +45,7 @@ public class User {
     private String password;
     
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_ROLES_REGION)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "username"),
@@ -45,17 +56,58 @@ public class User {
     @Column(nullable = false)
     private Boolean active = true;
     
+    // Embedded in issued tokens; the setters below bump it whenever what a token grants changes,
+    // revoking every token issued before (Hibernate uses field access, so loading does not bump it)
+    @Column(name = "token_version", columnDefinition = "bigint not null default 0")
+    private long tokenVersion;
+    
+    public void setPassword(String password) {
+        if (this.password != null && !this.password.equals(password)) {
+            revokeTokens();
+        }
+        this.password = password;
+    }
+    
+    public void setActive(Boolean active) {
+        if (!Objects.equals(this.active, active)) {
+            revokeTokens();
+        }
+        this.active = active;
+    }
+    
+    public void setRoles(Set<Role> roles) {
+        if (!roleNames(this.roles).equals(roleNames(roles))) {
+            revokeTokens();
+        }
+        this.roles = roles;
+    }
+    
+    /**
+     * Invalidate every token issued so far
+     */
+    public void revokeTokens() {
+        this.tokenVersion++;
+    }
+    
     // Helper methods
     public void addRole(Role role) {
-        this.roles.add(role);
+        if (this.roles.add(role)) {
+            revokeTokens();
+        }
     }
     
     public void removeRole(Role role) {
-        this.roles.remove(role);
+        if (this.roles.remove(role)) {
+            revokeTokens();
+        }
     }
     
     public boolean hasRole(ERole roleName) {
         return roles.stream()
             .anyMatch(role -> role.getName().equals(roleName));
     }
+    
+    private static Set<ERole> roleNames(Set<Role> roles) {
+        return roles == null ? Set.of() : roles.stream().map(Role::getName).collect(Collectors.toSet());
+    }
 }
\ No newline at end of file
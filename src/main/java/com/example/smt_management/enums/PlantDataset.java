@@ -0,0 +1,37 @@
+package com.example.smt_management.enums;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Tables that can be bulk imported / exported, with their flat column layout.
+ * Parents are referenced by name (line -> floor name, machine -> line name),
+ * so a file exported from one plant can be loaded into another.
+ */
+public enum PlantDataset {
+	FLOORS("name"),
+	LINES("lineName", "lane", "direction", "floor"),
+	MACHINES("machineSerial", "model", "type", "yearOfManufacturing", "manufacturingCompany", "line");
+
+	private final List<String> columns;
+
+	PlantDataset(String... columns) {
+		this.columns = List.of(columns);
+	}
+
+	public List<String> columns() {
+		return columns;
+	}
+
+	/**
+	 * Dataset for a path segment such as "machines"
+	 */
+	public static Optional<PlantDataset> fromPath(String value) {
+		try {
+			return Optional.of(valueOf(value.toUpperCase(Locale.ROOT)));
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+}
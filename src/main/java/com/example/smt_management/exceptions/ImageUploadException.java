@@ -0,0 +1,20 @@
+package com.example.smt_management.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Rejected image upload, carrying the HTTP status to answer with
+ */
+public class ImageUploadException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public ImageUploadException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
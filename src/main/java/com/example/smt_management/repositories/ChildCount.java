@@ -0,0 +1,9 @@
+package com.example.smt_management.repositories;
+
+/**
+ * Projection for grouped child counts (machines per line, lines per floor)
+ */
+public interface ChildCount {
+    Long getParentId();
+    Long getCount();
+}
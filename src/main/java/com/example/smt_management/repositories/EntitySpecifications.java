@@ -3,7 +3,9 @@ package com.example.smt_management.repositories;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.util.StringUtils;
 
 import com.example.smt_management.entities.Floor;
@@ -13,6 +15,8 @@ import com.example.smt_management.enums.Direction;
 import com.example.smt_management.enums.LaneType;
 import com.example.smt_management.enums.MachineType;
 
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Predicate;
 
 /**
@@ -129,4 +133,70 @@ public class EntitySpecifications {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Keyset (seek) condition on a unique sort column: rows strictly after the given value.
+     * No condition for the first slice (value is empty).
+     */
+    public static <T> Specification<T> after(String attribute, String value) {
+        return (root, query, criteriaBuilder) -> StringUtils.hasText(value)
+                ? criteriaBuilder.greaterThan(root.get(attribute), value)
+                : null;
+    }
+
+    /**
+     * Case-insensitive substring match on any of the attributes: the LIKE counterpart of
+     * fuzzyMatch, so a term finds the same columns whichever search mode is active
+     */
+    public static <T> Specification<T> containsAny(String term, String... attributes) {
+        return (root, query, criteriaBuilder) -> {
+            if (!StringUtils.hasText(term)) {
+                return null;
+            }
+            String pattern = "%" + term.trim().toLowerCase() + "%";
+            Predicate[] matches = new Predicate[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                matches[i] = criteriaBuilder.like(criteriaBuilder.lower(root.get(attributes[i])), pattern);
+            }
+            return criteriaBuilder.or(matches);
+        };
+    }
+
+    /**
+     * Trigram search across text columns (requires pg_trgm): substring or similar-spelling match
+     * on any attribute, best similarity first, then the caller's sort as tie-break.
+     * Count queries get the predicate only.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Specification<T> fuzzyMatch(String term, Sort tieBreak, String... attributes) {
+        return (root, query, criteriaBuilder) -> {
+            if (!StringUtils.hasText(term)) {
+                return null;
+            }
+            String needle = term.trim().toLowerCase();
+            List<Predicate> matches = new ArrayList<>();
+            List<Expression<Double>> scores = new ArrayList<>();
+            
+            for (String attribute : attributes) {
+                Expression<String> column = criteriaBuilder.lower(root.get(attribute));
+                matches.add(criteriaBuilder.like(column, "%" + needle + "%"));
+                matches.add(criteriaBuilder.isTrue(criteriaBuilder.function(
+                    "trgm_match", Boolean.class, column, criteriaBuilder.literal(needle))));
+                scores.add(criteriaBuilder.function(
+                    "similarity", Double.class, column, criteriaBuilder.literal(needle)));
+            }
+            
+            if (!Long.class.equals(query.getResultType())) {
+                Expression<Double> rank = scores.size() == 1
+                    ? scores.get(0)
+                    : criteriaBuilder.function("greatest", Double.class, scores.toArray(new Expression[0]));
+                List<Order> orders = new ArrayList<>();
+                orders.add(criteriaBuilder.desc(rank));
+                orders.addAll(QueryUtils.toOrders(tieBreak, root, criteriaBuilder));
+                query.orderBy(orders);
+            }
+            
+            return criteriaBuilder.or(matches.toArray(new Predicate[0]));
+        };
+    }
 }
\ No newline at end of file
@@ -1,16 +1,24 @@
 
 package com.example.smt_management.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.smt_management.dtos.LookupOption;
 import com.example.smt_management.entities.Floor;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for Floor entity
  * Supports pagination, sorting, and dynamic filtering
@@ -19,8 +27,9 @@ import com.example.smt_management.entities.Floor;
 public interface FloorRepository extends JpaRepository<Floor, Long>, JpaSpecificationExecutor<Floor> {
     
     /**
-     * Find floor by name (case-sensitive)
+     * Find floor by name (case-sensitive), served from the query cache
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Floor> findByName(String name);
     
     /**
@@ -29,8 +38,9 @@ public interface FloorRepository extends JpaRepository<Floor, Long>, JpaSpecific
     Boolean existsByName(String name);
     
     /**
-     * Find floor by name (case-insensitive)
+     * Find floor by name (case-insensitive), served from the query cache
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Floor> findByNameIgnoreCase(String name);
     
     /**
@@ -44,4 +54,62 @@ public interface FloorRepository extends JpaRepository<Floor, Long>, JpaSpecific
      */
     @Query("SELECT COUNT(l) FROM Line l WHERE l.floorMapping.id = :floorId")
     Long countLinesByFloorId(Long floorId);
+    
+    /**
+     * Line counts for a page of floors in one grouped query (floors without lines are absent)
+     */
+    @Query("SELECT l.floorMapping.id AS parentId, COUNT(l) AS count FROM Line l WHERE l.floorMapping.id IN :floorIds GROUP BY l.floorMapping.id")
+    List<ChildCount> countLinesByFloorIds(Collection<Long> floorIds);
+
+    /**
+     * Line counts of every floor that has lines
+     */
+    @Query("SELECT l.floorMapping.id AS parentId, COUNT(l) AS count FROM Line l GROUP BY l.floorMapping.id")
+    List<ChildCount> countLinesPerFloor();
+
+    /**
+     * Take a line slot if the floor is below the cap, in one statement: the row lock held until
+     * commit serialises concurrent saves on the same floor
+     * @return 1 if a slot was taken, 0 if the floor is full (or does not exist)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "floors"))
+    @Query(value = "UPDATE floors SET line_count = line_count + 1 WHERE id = :floorId AND line_count < :max",
+           nativeQuery = true)
+    int reserveLineSlot(Long floorId, int max);
+
+    /**
+     * Give a line slot back
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "floors"))
+    @Query(value = "UPDATE floors SET line_count = line_count - 1 WHERE id = :floorId AND line_count > 0",
+           nativeQuery = true)
+    int releaseLineSlot(Long floorId);
+
+    /**
+     * Rebuild every floor's line counter from the lines table
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "floors"))
+    @Query(value = "UPDATE floors f SET line_count = (SELECT COUNT(*) FROM lines l WHERE l.floor_id = f.id)",
+           nativeQuery = true)
+    int recountLineSlots();
+
+    /**
+     * Every floor, read forward-only in fetch-size batches for exports
+     * (call inside a transaction and close the stream)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM Floor f ORDER BY f.id")
+    Stream<Floor> streamAll();
+
+    /**
+     * Every floor as an id + label option, without hydrating entities
+     */
+    @Query("SELECT new com.example.smt_management.dtos.LookupOption(f.id, f.name) FROM Floor f ORDER BY f.name")
+    List<LookupOption> findAllLookupOptions();
 }
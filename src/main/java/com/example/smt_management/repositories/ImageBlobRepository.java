@@ -0,0 +1,93 @@
+package com.example.smt_management.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.smt_management.entities.ImageBlob;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for image blob reference counts.
+ * Counts are changed with single atomic statements so concurrent saves never lose an update;
+ * each declares the table it writes so Hibernate only invalidates cached data for image_blobs.
+ */
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    /**
+     * Record a freshly stored blob with no references yet (collected if nothing ever points at it).
+     * Re-storing a blob that is already orphaned restarts its grace period, so the collector
+     * cannot delete it before the caller takes its reference in a later transaction.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "INSERT INTO image_blobs (hash, size_bytes, ref_count, created_at, orphaned_at) "
+            + "VALUES (:hash, :sizeBytes, 0, now(), now()) "
+            + "ON CONFLICT (hash) DO UPDATE SET orphaned_at = now() WHERE image_blobs.ref_count <= 0", nativeQuery = true)
+    int register(String hash, long sizeBytes);
+
+    /**
+     * Add a reference, creating the row if the blob is not registered yet
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "INSERT INTO image_blobs (hash, ref_count, created_at) VALUES (:hash, 1, now()) "
+            + "ON CONFLICT (hash) DO UPDATE SET ref_count = image_blobs.ref_count + 1, orphaned_at = NULL", nativeQuery = true)
+    int retain(String hash);
+
+    /**
+     * Drop a reference; the blob is marked orphaned when the last one goes
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "UPDATE image_blobs SET ref_count = GREATEST(ref_count - 1, 0), "
+            + "orphaned_at = CASE WHEN ref_count <= 1 THEN COALESCE(orphaned_at, now()) ELSE orphaned_at END "
+            + "WHERE hash = :hash", nativeQuery = true)
+    int release(String hash);
+
+    /**
+     * Blobs that have had no references since before the cutoff
+     */
+    @Query("SELECT b.hash FROM ImageBlob b WHERE b.refCount <= 0 AND b.orphanedAt < :cutoff ORDER BY b.orphanedAt")
+    List<String> findOrphanedBefore(Instant cutoff, Limit limit);
+
+    /**
+     * Delete the row only if no machine references the blob (re-checked against machines, not the counter)
+     * and it is still orphaned since before the cutoff (a re-upload since the candidate scan restarts the clock)
+     * @return 1 if deleted, 0 if the blob turned out to be in use
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "DELETE FROM image_blobs b WHERE b.hash = :hash AND b.ref_count <= 0 AND b.orphaned_at < :cutoff "
+            + "AND NOT EXISTS (SELECT 1 FROM machines m WHERE m.image_hash = :hash)", nativeQuery = true)
+    int deleteIfUnreferenced(String hash, Instant cutoff);
+
+    /**
+     * Reset counts from the machines table (also registers hashes written outside the service, e.g. by migrations)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "INSERT INTO image_blobs (hash, ref_count, created_at) "
+            + "SELECT m.image_hash, COUNT(*), now() FROM machines m WHERE m.image_hash IS NOT NULL GROUP BY m.image_hash "
+            + "ON CONFLICT (hash) DO UPDATE SET ref_count = EXCLUDED.ref_count, orphaned_at = NULL", nativeQuery = true)
+    int recountReferenced();
+
+    /**
+     * Mark blobs no machine points at as orphaned
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "UPDATE image_blobs b SET ref_count = 0, orphaned_at = COALESCE(b.orphaned_at, now()) "
+            + "WHERE (b.ref_count <> 0 OR b.orphaned_at IS NULL) "
+            + "AND NOT EXISTS (SELECT 1 FROM machines m WHERE m.image_hash = b.hash)", nativeQuery = true)
+    int recountUnreferenced();
+}
@@ -1,16 +1,28 @@
 
 package com.example.smt_management.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.smt_management.dtos.LookupOption;
 import com.example.smt_management.entities.Line;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for Line entity
  * Supports pagination, sorting, and dynamic filtering
@@ -19,8 +31,30 @@ import com.example.smt_management.entities.Line;
 public interface LineRepository extends JpaRepository<Line, Long>, JpaSpecificationExecutor<Line> {
     
     /**
-     * Find line by name (case-sensitive)
+     * All lines with their floor joined in (dropdowns)
      */
+    @Override
+    @EntityGraph(Line.WITH_FLOOR)
+    List<Line> findAll();
+    
+    /**
+     * Lines page with floor joined in
+     */
+    @Override
+    @EntityGraph(Line.WITH_FLOOR)
+    Page<Line> findAll(Pageable pageable);
+    
+    /**
+     * Filtered lines page with floor joined in
+     */
+    @Override
+    @EntityGraph(Line.WITH_FLOOR)
+    Page<Line> findAll(Specification<Line> spec, Pageable pageable);
+    
+    /**
+     * Find line by name (case-sensitive), served from the query cache
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Line> findByLineName(String lineName);
     
     /**
@@ -34,8 +68,9 @@ public interface LineRepository extends JpaRepository<Line, Long>, JpaSpecificat
     Optional<Line> findByLineNameIgnoreCase(String lineName);
     
     /**
-     * Find all lines belonging to a specific floor
+     * Find all lines belonging to a specific floor, served from the query cache
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Line> findByFloorMappingId(Long floorId);
     
     /**
@@ -54,4 +89,69 @@ public interface LineRepository extends JpaRepository<Line, Long>, JpaSpecificat
      */
     @Query("SELECT COUNT(m) FROM Machine m WHERE m.lineMapping.id = :lineId")
     Long countMachinesByLineId(Long lineId);
+    
+    /**
+     * Machine counts for a page of lines in one grouped query (lines without machines are absent)
+     */
+    @Query("SELECT m.lineMapping.id AS parentId, COUNT(m) AS count FROM Machine m WHERE m.lineMapping.id IN :lineIds GROUP BY m.lineMapping.id")
+    List<ChildCount> countMachinesByLineIds(Collection<Long> lineIds);
+    
+    /**
+     * Machine counts of every line that has machines
+     */
+    @Query("SELECT m.lineMapping.id AS parentId, COUNT(m) AS count FROM Machine m GROUP BY m.lineMapping.id")
+    List<ChildCount> countMachinesPerLine();
+    
+    /**
+     * Every line with its floor, read forward-only in fetch-size batches for exports
+     * (call inside a transaction and close the stream)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Line l JOIN FETCH l.floorMapping ORDER BY l.id")
+    Stream<Line> streamAllWithFloor();
+    
+    /**
+     * Ids of all lines on a floor
+     */
+    @Query("SELECT l.id FROM Line l WHERE l.floorMapping.id = :floorId")
+    List<Long> findIdsByFloorId(Long floorId);
+    
+    /**
+     * Take a machine slot if the line is below the cap, in one statement: the row lock held until
+     * commit serialises concurrent saves on the same line
+     * @return 1 if a slot was taken, 0 if the line is full (or does not exist)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lines"))
+    @Query(value = "UPDATE lines SET machine_count = machine_count + 1 WHERE id = :lineId AND machine_count < :max",
+           nativeQuery = true)
+    int reserveMachineSlot(Long lineId, int max);
+    
+    /**
+     * Give a machine slot back
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lines"))
+    @Query(value = "UPDATE lines SET machine_count = machine_count - 1 WHERE id = :lineId AND machine_count > 0",
+           nativeQuery = true)
+    int releaseMachineSlot(Long lineId);
+    
+    /**
+     * Rebuild every line's machine counter from the machines table
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lines"))
+    @Query(value = "UPDATE lines l SET machine_count = (SELECT COUNT(*) FROM machines m WHERE m.line_id = l.id)",
+           nativeQuery = true)
+    int recountMachineSlots();
+    
+    /**
+     * Every line as an id + label option, without hydrating entities
+     */
+    @Query("SELECT new com.example.smt_management.dtos.LookupOption(l.id, CONCAT(l.lineName, ' (Floor: ', f.name, ')')) " +
+           "FROM Line l JOIN l.floorMapping f ORDER BY l.lineName")
+    List<LookupOption> findAllLookupOptions();
 }
\ No newline at end of file
@@ -1,15 +1,29 @@
 
 package com.example.smt_management.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.smt_management.entities.Machine;
 import com.example.smt_management.enums.MachineType;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for Machine entity
  * Supports pagination, sorting, and dynamic filtering
@@ -17,6 +31,20 @@ import com.example.smt_management.enums.MachineType;
 @Repository
 public interface MachineRepository extends JpaRepository<Machine, String>, JpaSpecificationExecutor<Machine> {
     
+    /**
+     * Machines page with line and floor joined in (one select plus the count query)
+     */
+    @Override
+    @EntityGraph(Machine.WITH_LINE_AND_FLOOR)
+    Page<Machine> findAll(Pageable pageable);
+    
+    /**
+     * Filtered machines page with line and floor joined in (one select plus the count query)
+     */
+    @Override
+    @EntityGraph(Machine.WITH_LINE_AND_FLOOR)
+    Page<Machine> findAll(Specification<Machine> spec, Pageable pageable);
+    
     /**
      * Find all machines belonging to a specific line
      */
@@ -32,6 +60,11 @@ public interface MachineRepository extends JpaRepository<Machine, String>, JpaSp
      */
     List<Machine> findByType(MachineType type);
     
+    /**
+     * Count machines of a type (COUNT query, no rows loaded)
+     */
+    long countByType(MachineType type);
+    
     /**
      * Find machines by manufacturing company
      */
@@ -51,4 +84,115 @@ public interface MachineRepository extends JpaRepository<Machine, String>, JpaSp
      * Check if machine serial exists
      */
     Boolean existsByMachineSerial(String machineSerial);
+
+    /**
+     * Get only the image reference of a machine (no entity hydration)
+     */
+    @Query("SELECT m.imageHash AS imageHash, m.imageContentType AS imageContentType FROM Machine m WHERE m.machineSerial = :machineSerial")
+    Optional<ImageRef> findImageRef(String machineSerial);
+
+    /**
+     * Every machine with its line, read forward-only in fetch-size batches for exports
+     * (call inside a transaction and close the stream)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Machine m JOIN FETCH m.lineMapping ORDER BY m.machineSerial")
+    Stream<Machine> streamAllWithLine();
+
+    /**
+     * Keyset page of machines that have an image, ordered by serial, starting after the given serial
+     */
+    @Query("SELECT m.machineSerial AS machineSerial, m.imageHash AS imageHash, m.imageContentType AS imageContentType " +
+           "FROM Machine m WHERE m.imageHash IS NOT NULL AND m.machineSerial > :afterSerial ORDER BY m.machineSerial")
+    List<ImageEntry> findImageEntriesAfter(String afterSerial, Limit limit);
+
+    /**
+     * Serial and image hash of every machine on the given lines, collected before a bulk delete
+     */
+    @Query("SELECT m.machineSerial AS machineSerial, m.imageHash AS imageHash FROM Machine m WHERE m.lineMapping.id IN :lineIds")
+    List<MachineRef> findRefsByLineIds(Collection<Long> lineIds);
+
+    /**
+     * Delete every machine on the given lines in one statement (bypasses entity listeners)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Machine m WHERE m.lineMapping.id IN :lineIds")
+    int deleteAllByLineIds(Collection<Long> lineIds);
+
+    /**
+     * Machine counts per type (types without machines are absent)
+     */
+    @Query("SELECT m.type AS type, COUNT(m) AS count FROM Machine m GROUP BY m.type")
+    List<TypeCount> countPerType();
+
+    /**
+     * Fleet breakdown in one round-trip: machine counts by type, company, 5-year bucket,
+     * line and floor plus the overall total, as one GROUPING SETS aggregate.
+     * Lines and floors are outer-joined so empty ones report 0 (needed for line fill);
+     * the type/company/year sets therefore also yield a NULL-key group for empty lines.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT CASE " +
+        "         WHEN GROUPING(m.type) = 0 THEN 'TYPE' " +
+        "         WHEN GROUPING(m.manufacturing_company) = 0 THEN 'COMPANY' " +
+        "         WHEN GROUPING((m.year_of_manufacturing / 5) * 5) = 0 THEN 'YEAR' " +
+        "         WHEN GROUPING(l.id) = 0 THEN 'LINE' " +
+        "         WHEN GROUPING(f.id) = 0 THEN 'FLOOR' " +
+        "         ELSE 'TOTAL' END AS dimension, " +
+        "       COALESCE(m.type, m.manufacturing_company, CAST((m.year_of_manufacturing / 5) * 5 AS varchar), " +
+        "                CAST(l.id AS varchar), CAST(f.id AS varchar)) AS \"bucketKey\", " +
+        "       COALESCE(l.line_name, f.name) AS \"bucketLabel\", " +
+        "       COUNT(m.machine_serial) AS count " +
+        "FROM floors f " +
+        "LEFT JOIN lines l ON l.floor_id = f.id " +
+        "LEFT JOIN machines m ON m.line_id = l.id " +
+        "GROUP BY GROUPING SETS ((m.type), (m.manufacturing_company), ((m.year_of_manufacturing / 5) * 5), " +
+        "                        (l.id, l.line_name), (f.id, f.name), ())")
+    List<BreakdownRow> fleetBreakdown();
+
+    /**
+     * Image reference projection
+     */
+    interface ImageRef {
+        String getImageHash();
+        String getImageContentType();
+    }
+
+    /**
+     * One GROUPING SETS row: dimension (TYPE, COMPANY, YEAR, LINE, FLOOR, TOTAL), its key, label and count
+     */
+    interface BreakdownRow {
+        String getDimension();
+        String getBucketKey();
+        String getBucketLabel();
+        Long getCount();
+    }
+
+    /**
+     * Machine serial + image reference projection
+     */
+    interface ImageEntry {
+        String getMachineSerial();
+        String getImageHash();
+        String getImageContentType();
+    }
+
+    /**
+     * Machine serial + image hash projection
+     */
+    interface MachineRef {
+        String getMachineSerial();
+        String getImageHash();
+    }
+
+    /**
+     * Machine type count projection
+     */
+    interface TypeCount {
+        MachineType getType();
+        Long getCount();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.example.smt_management.repositories;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.entities.Machine;
+
+/**
+ * Plain JDBC access for bulk imports: key preloading and batched inserts.
+ * Floor and line ids are IDENTITY columns, which stops Hibernate from batching their
+ * inserts, so ids are drawn from the identity sequences in one round trip per batch
+ * and rows are written with JdbcTemplate batches (rewritten into multi-row INSERTs
+ * by the driver when reWriteBatchedInserts is on). Entity listeners do not run here.
+ */
+@Repository
+public class PlantBulkRepository {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbc;
+
+    public PlantBulkRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // ==================== Key preloading ====================
+
+    /**
+     * Every floor name with its id and line counter
+     */
+    public Map<String, SlotCounter> loadFloorSlots() {
+        return loadSlots("SELECT id, name, line_count FROM floors");
+    }
+
+    /**
+     * Every line name with its id and machine counter
+     */
+    public Map<String, SlotCounter> loadLineSlots() {
+        return loadSlots("SELECT id, line_name, machine_count FROM lines");
+    }
+
+    /**
+     * Every machine serial, streamed from a cursor
+     */
+    public Set<String> loadMachineSerials() {
+        Set<String> serials = new HashSet<>();
+        jdbc.query(con -> {
+            PreparedStatement statement = con.prepareStatement("SELECT machine_serial FROM machines");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> serials.add(rs.getString(1)));
+        return serials;
+    }
+
+    private Map<String, SlotCounter> loadSlots(String sql) {
+        Map<String, SlotCounter> slots = new HashMap<>();
+        jdbc.query(sql, (RowCallbackHandler) rs ->
+            slots.put(rs.getString(2), new SlotCounter(rs.getLong(1), rs.getInt(3))));
+        return slots;
+    }
+
+    // ==================== Inserts ====================
+
+    public void insertFloors(List<Floor> floors) {
+        assignIds("floors", floors, Floor::setId);
+        jdbc.batchUpdate("INSERT INTO floors (id, name) VALUES (?, ?)", floors, floors.size(),
+            (statement, floor) -> {
+                statement.setLong(1, floor.getId());
+                statement.setString(2, floor.getName());
+            });
+    }
+
+    public void insertLines(List<Line> lines) {
+        assignIds("lines", lines, Line::setId);
+        jdbc.batchUpdate("INSERT INTO lines (id, line_name, lane, direction, floor_id) VALUES (?, ?, ?, ?, ?)",
+            lines, lines.size(),
+            (statement, line) -> {
+                statement.setLong(1, line.getId());
+                statement.setString(2, line.getLineName());
+                statement.setString(3, line.getLane().name());
+                statement.setString(4, line.getDirection().name());
+                statement.setLong(5, line.getFloorId());
+            });
+    }
+
+    public void insertMachines(List<Machine> machines) {
+        jdbc.batchUpdate("INSERT INTO machines (machine_serial, model, type, year_of_manufacturing, "
+                + "manufacturing_company, line_id) VALUES (?, ?, ?, ?, ?, ?)",
+            machines, machines.size(),
+            (statement, machine) -> {
+                statement.setString(1, machine.getMachineSerial());
+                statement.setString(2, machine.getModel());
+                statement.setString(3, machine.getType().name());
+                statement.setInt(4, machine.getYearOfManufacturing());
+                statement.setString(5, machine.getManufacturingCompany());
+                statement.setLong(6, machine.getLineId());
+            });
+    }
+
+    private <T> void assignIds(String table, List<T> rows, BiConsumer<T, Long> setter) {
+        List<Long> ids = jdbc.queryForList(
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)",
+            Long.class, table, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            setter.accept(rows.get(i), ids.get(i));
+        }
+    }
+
+    // ==================== Capacity counters ====================
+
+    /**
+     * Add lines to floor counters, each guarded by the cap (parents updated in id order)
+     * @return ids of floors that would exceed the cap (not updated)
+     */
+    public List<Long> addLineSlots(SortedMap<Long, Integer> added, int max) {
+        return addSlots("UPDATE floors SET line_count = line_count + ? WHERE id = ? AND line_count + ? <= ?",
+            added, max);
+    }
+
+    /**
+     * Add machines to line counters, each guarded by the cap (parents updated in id order)
+     * @return ids of lines that would exceed the cap (not updated)
+     */
+    public List<Long> addMachineSlots(SortedMap<Long, Integer> added, int max) {
+        return addSlots("UPDATE lines SET machine_count = machine_count + ? WHERE id = ? AND machine_count + ? <= ?",
+            added, max);
+    }
+
+    private List<Long> addSlots(String sql, SortedMap<Long, Integer> added, int max) {
+        if (added.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(added.entrySet());
+        int[][] counts = jdbc.batchUpdate(sql, entries, entries.size(), (statement, entry) -> {
+            statement.setInt(1, entry.getValue());
+            statement.setLong(2, entry.getKey());
+            statement.setInt(3, entry.getValue());
+            statement.setInt(4, max);
+        });
+        List<Long> full = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (counts[0][i] == 0) {
+                full.add(entries.get(i).getKey());
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Parent id plus the number of child slots in use, tracked in memory while an import runs
+     */
+    public static final class SlotCounter {
+
+        private final long id;
+        private int used;
+
+        public SlotCounter(long id, int used) {
+            this.id = id;
+            this.used = used;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        /**
+         * Take a slot if fewer than max are in use
+         */
+        public boolean tryTake(int max) {
+            if (used >= max) {
+                return false;
+            }
+            used++;
+            return true;
+        }
+    }
+}
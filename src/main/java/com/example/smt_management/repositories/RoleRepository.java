@@ -2,12 +2,16 @@ package com.example.smt_management.repositories;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.smt_management.entities.ERole;
 import com.example.smt_management.entities.Role;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for Role entity
  */
@@ -15,8 +19,9 @@ import com.example.smt_management.entities.Role;
 public interface RoleRepository extends JpaRepository<Role, Long> {
     
     /**
-     * Find role by name
+     * Find role by name, served from the query cache (looked up on every sign-up and role change)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(ERole name);
     
     /**
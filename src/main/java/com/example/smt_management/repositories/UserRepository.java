@@ -3,6 +3,7 @@ package com.example.smt_management.repositories;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.smt_management.entities.User;
@@ -26,4 +27,15 @@ public interface UserRepository extends JpaRepository<User, String> {
     default boolean existsById(String username) {
         return existsByUsername(username);
     }	
+
+    /**
+     * Token version and active flag only, for token revocation checks
+     */
+    @Query("SELECT u.tokenVersion AS tokenVersion, u.active AS active FROM User u WHERE u.username = :username")
+    Optional<TokenState> findTokenState(String username);
+
+    interface TokenState {
+        long getTokenVersion();
+        Boolean getActive();
+    }
 }
\ No newline at end of file
@@ -4,10 +4,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -33,23 +33,34 @@ public class AuthService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final UserAccountService userAccountService;
+
     @Autowired
 	public AuthService(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserRepository userRepository,
-			RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+			RoleRepository roleRepository, PasswordEncoder passwordEncoder, UserAccountService userAccountService) {
 		super();
 		this.authenticationManager = authenticationManager;
 		this.jwtUtil = jwtUtil;
 		this.userRepository = userRepository;
 		this.roleRepository = roleRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.userAccountService = userAccountService;
 	}
 
     public AuthResponse authenticate(AuthRequest request) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(userDetails);
+        // The external API provider's principal is the plain username, not a UserDetails
+        String username = authentication.getName();
+        User account;
+        try {
+            account = userAccountService.recordLogin(username, authentication.getAuthorities());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first login created the row; it exists now
+            account = userAccountService.recordLogin(username, authentication.getAuthorities());
+        }
+        String token = jwtUtil.generateToken(username, authentication.getAuthorities(), account.getTokenVersion());
         return new AuthResponse(token);
     }
 
@@ -0,0 +1,101 @@
+package com.example.smt_management.services;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.repositories.MachineRepository.MachineRef;
+import com.example.smt_management.services.GlobalSearchIndex.Kind;
+
+/**
+ * Set-based removal of a floor or line subtree: one DELETE per level, children first,
+ * instead of hydrating every child entity for JPA cascade/orphan removal.
+ * Bulk statements bypass the entity listeners, so image references, the image ref cache,
+ * the global search index and the lookup cache are updated here explicitly.
+ */
+@Service
+@Transactional
+public class CascadeDeleteService {
+
+    private final FloorRepository floorRepository;
+    private final LineRepository lineRepository;
+    private final MachineRepository machineRepository;
+    private final ImageBlobService imageBlobService;
+    private final MachineImageRefCache refCache;
+    private final GlobalSearchIndex searchIndex;
+    private final LookupCache lookupCache;
+    private final ApplicationEventPublisher events;
+
+    public CascadeDeleteService(
+            FloorRepository floorRepository,
+            LineRepository lineRepository,
+            MachineRepository machineRepository,
+            ImageBlobService imageBlobService,
+            MachineImageRefCache refCache,
+            GlobalSearchIndex searchIndex,
+            LookupCache lookupCache,
+            ApplicationEventPublisher events) {
+        this.floorRepository = floorRepository;
+        this.lineRepository = lineRepository;
+        this.machineRepository = machineRepository;
+        this.imageBlobService = imageBlobService;
+        this.refCache = refCache;
+        this.searchIndex = searchIndex;
+        this.lookupCache = lookupCache;
+        this.events = events;
+    }
+
+    /**
+     * Delete a line and all its machines, giving the line's slot back to its floor
+     */
+    public void deleteLine(Long lineId, Long floorId) {
+        int machines = deleteMachinesAndLines(List.of(lineId));
+        if (floorId != null) {
+            floorRepository.releaseLineSlot(floorId);
+        }
+        events.publishEvent(new PlantChangeEvent.BulkChange("cascade delete of line " + lineId));
+        AppLog.info("Cascade-deleted line " + lineId + " with " + machines + " machine(s)");
+    }
+
+    /**
+     * Delete a floor with all its lines and machines
+     */
+    public void deleteFloor(Long floorId) {
+        List<Long> lineIds = lineRepository.findIdsByFloorId(floorId);
+        int machines = deleteMachinesAndLines(lineIds);
+        floorRepository.deleteAllByIdInBatch(List.of(floorId));
+        searchIndex.removeAfterCommit(Kind.FLOOR, List.of(String.valueOf(floorId)));
+        lookupCache.invalidate();
+        events.publishEvent(new PlantChangeEvent.BulkChange("cascade delete of floor " + floorId));
+        AppLog.info("Cascade-deleted floor " + floorId + " with " + lineIds.size() + " line(s) and "
+                + machines + " machine(s)");
+    }
+
+    /**
+     * @return number of machines deleted
+     */
+    private int deleteMachinesAndLines(List<Long> lineIds) {
+        if (lineIds.isEmpty()) {
+            return 0;
+        }
+        List<MachineRef> machines = machineRepository.findRefsByLineIds(lineIds);
+        List<String> serials = machines.stream().map(MachineRef::getMachineSerial).toList();
+
+        machineRepository.deleteAllByLineIds(lineIds);
+        lineRepository.deleteAllByIdInBatch(lineIds);
+
+        imageBlobService.releaseAll(machines.stream().map(MachineRef::getImageHash).filter(Objects::nonNull).toList());
+        serials.forEach(refCache::evict);
+        searchIndex.removeAfterCommit(Kind.MACHINE, serials);
+        searchIndex.removeAfterCommit(Kind.LINE, lineIds.stream().map(String::valueOf).toList());
+        lookupCache.invalidate();
+        return machines.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.smt_management.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.smt_management.dtos.FleetBreakdown;
+import com.example.smt_management.dtos.FleetBreakdown.Bucket;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.repositories.MachineRepository.BreakdownRow;
+
+/**
+ * Fleet breakdowns for maintenance planners: one GROUPING SETS query per refresh,
+ * memoized for a short TTL so repeated dashboard pulls share the result
+ */
+@Service
+public class FleetStatisticsService {
+
+    private final MachineRepository machineRepository;
+    private final Duration ttl;
+    private volatile FleetBreakdown cached;
+
+    public FleetStatisticsService(MachineRepository machineRepository,
+            @Value("${stats.breakdown-ttl:PT30S}") Duration ttl) {
+        this.machineRepository = machineRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Current breakdown, recomputed at most once per TTL (concurrent callers wait for one query)
+     */
+    public FleetBreakdown getBreakdown() {
+        FleetBreakdown current = cached;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = cached;
+            if (!isFresh(current)) {
+                current = compute();
+                cached = current;
+            }
+            return current;
+        }
+    }
+
+    private boolean isFresh(FleetBreakdown breakdown) {
+        return breakdown != null && breakdown.getComputedAt().plus(ttl).isAfter(Instant.now());
+    }
+
+    private FleetBreakdown compute() {
+        long total = 0;
+        Map<String, Long> byType = new TreeMap<>();
+        Map<String, Long> byCompany = new TreeMap<>();
+        Map<Integer, Long> byYear = new TreeMap<>();
+        List<Bucket> byFloor = new ArrayList<>();
+        List<Bucket> byLine = new ArrayList<>();
+
+        for (BreakdownRow row : machineRepository.fleetBreakdown()) {
+            String key = row.getBucketKey();
+            long count = row.getCount();
+            if (key == null && !"TOTAL".equals(row.getDimension())) {
+                // Empty lines / floors outer-joined into the machine dimensions
+                continue;
+            }
+            switch (row.getDimension()) {
+                case "TYPE" -> byType.put(key, count);
+                case "COMPANY" -> byCompany.put(key, count);
+                case "YEAR" -> byYear.put(Integer.valueOf(key), count);
+                case "LINE" -> byLine.add(new Bucket(Long.valueOf(key), row.getBucketLabel(), count));
+                case "FLOOR" -> byFloor.add(new Bucket(Long.valueOf(key), row.getBucketLabel(), count));
+                default -> total = count;
+            }
+        }
+
+        byFloor.sort(Comparator.comparing(Bucket::getLabel));
+        byLine.sort(Comparator.comparing(Bucket::getLabel));
+        return new FleetBreakdown(total, byType, byCompany, byYear, byFloor, byLine, Instant.now());
+    }
+}
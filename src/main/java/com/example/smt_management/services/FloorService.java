@@ -1,18 +1,29 @@
 package com.example.smt_management.services;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import com.example.smt_management.configs.TrigramSearchSetup;
+import com.example.smt_management.dtos.FloorSummary;
 import com.example.smt_management.entities.Floor;
 import com.example.smt_management.entities.Line;
+import com.example.smt_management.repositories.ChildCount;
 import com.example.smt_management.repositories.EntitySpecifications;
 import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.util.KeysetSlice;
 
 /**
  * Enhanced Floor Service with validation, search, and business logic
@@ -22,9 +33,17 @@ import com.example.smt_management.repositories.FloorRepository;
 public class FloorService {
     
     private final FloorRepository floorRepository;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final TrigramSearchSetup trigramSearch;
+    private final ApplicationEventPublisher events;
     
-    public FloorService(FloorRepository floorRepository) {
+    public FloorService(FloorRepository floorRepository, CascadeDeleteService cascadeDeleteService,
+            TrigramSearchSetup trigramSearch,
+            ApplicationEventPublisher events) {
         this.floorRepository = floorRepository;
+        this.cascadeDeleteService = cascadeDeleteService;
+        this.trigramSearch = trigramSearch;
+        this.events = events;
     }
     
     // ==================== CRUD Operations ====================
@@ -55,8 +74,10 @@ public class FloorService {
      * Save new floor or update existing one
      */
     public Floor saveFloor(Floor floor) {
+        boolean created = floor.getId() == null;
+        
         // Validate floor name uniqueness (for new floors)
-        if (floor.getId() == null) {
+        if (created) {
             validateFloorNameUnique(floor.getName());
         } else {
             // For updates, check if name changed and if new name is unique
@@ -66,7 +87,11 @@ public class FloorService {
             }
         }
         
-        return floorRepository.save(floor);
+        Floor saved = floorRepository.save(floor);
+        if (created) {
+            events.publishEvent(new PlantChangeEvent.FloorCreated(saved.getId()));
+        }
+        return saved;
     }
     
     /**
@@ -85,14 +110,15 @@ public class FloorService {
         }
         
         floorRepository.deleteById(id);
+        events.publishEvent(new PlantChangeEvent.FloorDeleted(id));
     }
     
     /**
-     * Force delete floor with all its lines (cascade)
+     * Force delete floor with all its lines and machines (set-based, children first)
      */
     public void cascadeDeleteFloor(Long id) {
-        Floor floor = getFloorById(id);
-        floorRepository.delete(floor); // Cascade will delete all lines
+        getFloorById(id);
+        cascadeDeleteService.deleteFloor(id);
     }
     
     // ==================== Search & Filter ====================
@@ -101,10 +127,61 @@ public class FloorService {
      * Search floors by name with pagination
      */
     public Page<Floor> searchFloors(String name, Pageable pageable) {
+        if (trigramSearch.isEnabled() && StringUtils.hasText(name)) {
+            Specification<Floor> spec = EntitySpecifications.fuzzyMatch(name, pageable.getSort(), "name");
+            return floorRepository.findAll(spec, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        }
+        
         Specification<Floor> spec = EntitySpecifications.filterFloors(name);
         return floorRepository.findAll(spec, pageable);
     }
     
+    /**
+     * Floors page for the list view, line counts included
+     */
+    public Page<FloorSummary> getFloorSummaries(Pageable pageable) {
+        return toSummaries(getAllFloors(pageable));
+    }
+    
+    /**
+     * Floors matching a name for the list view, line counts included
+     */
+    public Page<FloorSummary> searchFloorSummaries(String name, Pageable pageable) {
+        return toSummaries(searchFloors(name, pageable));
+    }
+    
+    /**
+     * Keyset slice of floors ordered by name, starting after the given floor name (no COUNT query)
+     */
+    public Slice<FloorSummary> scrollFloorSummaries(String name, String afterName, int size) {
+        Specification<Floor> spec = EntitySpecifications.filterFloors(name)
+                .and(EntitySpecifications.after("name", afterName));
+        List<Floor> rows = floorRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("name").ascending())
+                .limit(size + 1)
+                .all());
+        Slice<Floor> slice = KeysetSlice.of(rows, size);
+        Map<Long, Long> counts = lineCountsByFloor(slice.getContent());
+        return slice.map(floor -> FloorSummary.of(floor, counts.getOrDefault(floor.getId(), 0L)));
+    }
+    
+    /**
+     * Attach line counts to a page of floors with one grouped query, without touching Floor.lines
+     */
+    private Page<FloorSummary> toSummaries(Page<Floor> page) {
+        Map<Long, Long> counts = lineCountsByFloor(page.getContent());
+        return page.map(floor -> FloorSummary.of(floor, counts.getOrDefault(floor.getId(), 0L)));
+    }
+    
+    private Map<Long, Long> lineCountsByFloor(List<Floor> floors) {
+        if (floors.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> floorIds = floors.stream().map(Floor::getId).toList();
+        return floorRepository.countLinesByFloorIds(floorIds).stream()
+                .collect(Collectors.toMap(ChildCount::getParentId, ChildCount::getCount));
+    }
+    
     /**
      * Find floor by exact name
      */
@@ -156,7 +233,7 @@ public class FloorService {
      * Check if floor can accept more lines (max 10)
      */
     public boolean canAddLine(Long floorId) {
-        return countLines(floorId) < 10;
+        return countLines(floorId) < Floor.MAX_LINES;
     }
     
     /**
@@ -165,14 +242,47 @@ public class FloorService {
      */
     public void validateCanAddLine(Long floorId) {
         Long lineCount = countLines(floorId);
-        if (lineCount >= 10) {
+        if (lineCount >= Floor.MAX_LINES) {
             Floor floor = getFloorById(floorId);
             throw new IllegalStateException(
-                "Floor '" + floor.getName() + "' already has " + lineCount + " lines. Maximum is 10."
+                "Floor '" + floor.getName() + "' already has " + lineCount + " lines. Maximum is "
+                    + Floor.MAX_LINES + "."
             );
         }
     }
     
+    /**
+     * Atomically take one of the floor's Floor.MAX_LINES line slots (single conditional UPDATE on the floor row)
+     * @throws IllegalStateException if floor already has 10 lines
+     */
+    public void reserveLineSlot(Long floorId) {
+        if (floorRepository.reserveLineSlot(floorId, Floor.MAX_LINES) == 0) {
+            validateCanAddLine(floorId);
+            // Counter and table disagree (e.g. rows changed outside the services): still refuse
+            Floor floor = getFloorById(floorId);
+            throw new IllegalStateException(
+                "Floor '" + floor.getName() + "' already has " + Floor.MAX_LINES + " lines. Maximum is "
+                    + Floor.MAX_LINES + "."
+            );
+        }
+    }
+    
+    /**
+     * Give back a line slot when a line leaves the floor
+     */
+    public void releaseLineSlot(Long floorId) {
+        if (floorId != null) {
+            floorRepository.releaseLineSlot(floorId);
+        }
+    }
+    
+    /**
+     * Rebuild all line slot counters from the lines table
+     */
+    public int recountLineSlots() {
+        return floorRepository.recountLineSlots();
+    }
+    
     // ==================== Parent-Child Management ====================
     
     /**
@@ -181,8 +291,8 @@ public class FloorService {
     public Floor addLineToFloor(Long floorId, Line line) {
         Floor floor = getFloorById(floorId);
         
-        // Validate 10-line limit
-        validateCanAddLine(floorId);
+        // Take a slot under the 10-line limit
+        reserveLineSlot(floorId);
         
         // Add line using entity helper method
         floor.addLine(line);
@@ -196,6 +306,7 @@ public class FloorService {
     public Floor removeLineFromFloor(Long floorId, Line line) {
         Floor floor = getFloorById(floorId);
         floor.removeLine(line);
+        releaseLineSlot(floorId);
         return floorRepository.save(floor);
     }
     
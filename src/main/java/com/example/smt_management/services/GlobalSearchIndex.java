@@ -0,0 +1,315 @@
+package com.example.smt_management.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.entities.Machine;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * In-process inverted trigram index over floor names, line names and machine
+ * serials/models/companies for the header typeahead.
+ * Words are padded like pg_trgm ("  word ") so short queries still match on word prefixes.
+ * Registered as the JPA listener of Floor, Line and Machine: changes are applied once the
+ * transaction commits (cascade deletes included). Bulk JPQL updates bypass the listener and
+ * must call {@link #put} / {@link #remove} themselves.
+ */
+@Component
+public class GlobalSearchIndex {
+
+    /** Share of the query trigrams an entry must contain to be a hit */
+    private static final double MIN_MATCH = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    // ==================== Queries ====================
+
+    /**
+     * Best hits for a typeahead query, highest score first
+     */
+    public List<SearchHit> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> grams = queryGrams(needle);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                Set<String> keys = postings.get(gram);
+                if (keys != null) {
+                    keys.forEach(key -> shared.merge(key, 1, Integer::sum));
+                }
+            }
+
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+            for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                double coverage = (double) candidate.getValue() / grams.size();
+                if (coverage < MIN_MATCH) {
+                    continue;
+                }
+                Entry entry = entries.get(candidate.getKey());
+                top.offer(entry.hit(coverage + boost(entry, needle)));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(SearchHit::label, String.CASE_INSENSITIVE_ORDER));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Replace the whole index, e.g. on startup
+     */
+    public void rebuild(Collection<Floor> floors, Collection<Line> lines, Collection<Machine> machines) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            floors.forEach(floor -> index(entryOf(floor)));
+            lines.forEach(line -> index(entryOf(line)));
+            machines.forEach(machine -> index(entryOf(machine)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Object entity) {
+        Entry entry = entryOf(entity);
+        if (entry != null) {
+            store(entry);
+        }
+    }
+
+    private void store(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            unindex(entry.key());
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Kind kind, String id) {
+        lock.writeLock().lock();
+        try {
+            unindex(kind + ":" + id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove entries once the current transaction commits, for bulk deletes that bypass the listener
+     */
+    public void removeAfterCommit(Kind kind, Collection<String> ids) {
+        List<String> removed = List.copyOf(ids);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removed.forEach(id -> unindex(kind + ":" + id));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Object entity) {
+        Entry entry = entryOf(entity);
+        if (entry != null) {
+            afterCommit(() -> store(entry));
+        }
+    }
+
+    @PostRemove
+    void onRemoved(Object entity) {
+        Entry entry = entryOf(entity);
+        if (entry != null) {
+            afterCommit(() -> remove(entry.kind(), entry.id()));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ==================== Internals ====================
+
+    private void index(Entry entry) {
+        entries.put(entry.key(), entry);
+        for (String gram : entry.grams()) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.key());
+        }
+    }
+
+    private void unindex(String key) {
+        Entry old = entries.remove(key);
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.grams()) {
+            Set<String> keys = postings.get(gram);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Exact and prefix matches on the label (name or serial) outrank fuzzy matches
+     */
+    private static double boost(Entry entry, String needle) {
+        if (entry.normalizedLabel().equals(needle)) {
+            return 2.0;
+        }
+        return entry.normalizedLabel().startsWith(needle) ? 1.0 : 0.0;
+    }
+
+    private static Entry entryOf(Object entity) {
+        if (entity instanceof Floor floor) {
+            return Entry.of(Kind.FLOOR, String.valueOf(floor.getId()), floor.getName(), null);
+        }
+        if (entity instanceof Line line) {
+            return Entry.of(Kind.LINE, String.valueOf(line.getId()), line.getLineName(), null);
+        }
+        if (entity instanceof Machine machine) {
+            return Entry.of(Kind.MACHINE, machine.getMachineSerial(), machine.getMachineSerial(),
+                    machine.getModel() + " - " + machine.getManufacturingCompany(),
+                    machine.getModel(), machine.getManufacturingCompany());
+        }
+        return null;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.split("[^\\p{L}\\p{N}]+");
+    }
+
+    /**
+     * Trigrams of every word padded as "  word "
+     */
+    private static Set<String> indexGrams(String... texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (String word : words(normalize(text))) {
+                addGrams(grams, "  " + word + " ");
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Like indexGrams, but the last word is left open so it matches as a prefix while typing
+     */
+    private static Set<String> queryGrams(String needle) {
+        Set<String> grams = new LinkedHashSet<>();
+        String[] words = words(needle);
+        for (int i = 0; i < words.length; i++) {
+            addGrams(grams, "  " + words[i] + (i < words.length - 1 ? " " : ""));
+        }
+        return grams;
+    }
+
+    private static void addGrams(Set<String> grams, String padded) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String gram = padded.substring(i, i + 3);
+            if (!gram.isBlank()) {
+                grams.add(gram);
+            }
+        }
+    }
+
+    public enum Kind {
+        FLOOR, LINE, MACHINE
+    }
+
+    /**
+     * One typeahead hit; url opens the matching list page filtered to it
+     */
+    public record SearchHit(Kind kind, String id, String label, String detail, double score) {
+
+        public String url() {
+            String path = switch (kind) {
+                case FLOOR -> "/floors";
+                case LINE -> "/lines";
+                case MACHINE -> "/machines";
+            };
+            return UriComponentsBuilder.fromPath(path).queryParam("search", label).build().encode().toUriString();
+        }
+    }
+
+    private record Entry(Kind kind, String id, String label, String normalizedLabel, String detail, Set<String> grams) {
+
+        static Entry of(Kind kind, String id, String label, String detail, String... extraText) {
+            String[] texts = new String[extraText.length + 1];
+            texts[0] = label;
+            System.arraycopy(extraText, 0, texts, 1, extraText.length);
+            return new Entry(kind, id, label, normalize(label), detail, indexGrams(texts));
+        }
+
+        String key() {
+            return kind + ":" + id;
+        }
+
+        SearchHit hit(double score) {
+            return new SearchHit(kind, id, label, detail, score);
+        }
+    }
+}
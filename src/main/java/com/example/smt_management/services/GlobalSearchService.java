@@ -0,0 +1,61 @@
+package com.example.smt_management.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.services.GlobalSearchIndex.SearchHit;
+
+/**
+ * Global "jump to" search across floors, lines and machines, answered from {@link GlobalSearchIndex}.
+ * The index is loaded once at startup and then kept current by entity lifecycle events.
+ */
+@Service
+public class GlobalSearchService {
+
+    private final GlobalSearchIndex index;
+    private final FloorRepository floorRepository;
+    private final LineRepository lineRepository;
+    private final MachineRepository machineRepository;
+    private final int maxHits;
+
+    public GlobalSearchService(
+            GlobalSearchIndex index,
+            FloorRepository floorRepository,
+            LineRepository lineRepository,
+            MachineRepository machineRepository,
+            @Value("${search.global.max-hits:8}") int maxHits) {
+        this.index = index;
+        this.floorRepository = floorRepository;
+        this.lineRepository = lineRepository;
+        this.machineRepository = machineRepository;
+        this.maxHits = maxHits;
+    }
+
+    /**
+     * Top hits for the typeahead, best first
+     */
+    public List<SearchHit> search(String query) {
+        return index.search(query, maxHits);
+    }
+
+    /**
+     * Load every floor, line and machine into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        index.rebuild(floorRepository.findAll(), lineRepository.findAll(), machineRepository.findAll());
+        AppLog.info("Global search index loaded: " + index.size() + " entries in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.smt_management.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.smt_management.configs.HibernateCacheConfig;
+import com.example.smt_management.dtos.CacheStatistics;
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Access to the Hibernate second-level cache.
+ * Changes made through Hibernate (entities, JPQL and native statements with declared table
+ * spaces) keep the cache consistent by themselves; writers that go straight to JDBC have to
+ * evict what they touched.
+ */
+@Service
+public class HibernateCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public HibernateCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Drop cached floors, lines, their collections and query results, now and again once
+     * the current transaction completes, so a reader that cached pre-commit rows in between
+     * does not keep them
+     */
+    public void evictPlant() {
+        evictPlantRegions();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictPlantRegions();
+                }
+            });
+        }
+    }
+
+    private void evictPlantRegions() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Floor.class);
+        cache.evictEntityData(Line.class);
+        cache.evictCollectionData(Floor.class.getName() + ".lines");
+        cache.evictQueryRegions();
+    }
+
+    // ==================== Statistics ====================
+
+    public CacheStatistics statistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheStatistics.Region> regions = new ArrayList<>();
+        for (String name : HibernateCacheConfig.DOMAIN_REGIONS) {
+            regions.add(region(statistics, name));
+        }
+        regions.add(region(statistics, HibernateCacheConfig.QUERY_RESULTS_REGION));
+        return new CacheStatistics(
+            statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(),
+            statistics.getQueryCachePutCount(),
+            regions,
+            Instant.now());
+    }
+
+    private static CacheStatistics.Region region(Statistics statistics, String name) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+        if (region == null) {
+            return new CacheStatistics.Region(name, 0, 0, 0, 0);
+        }
+        return new CacheStatistics.Region(name, region.getHitCount(), region.getMissCount(),
+            region.getPutCount(), region.getElementCountInMemory());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.smt_management.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.ImageBlobRepository;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.ImageVariant;
+import com.example.smt_management.storage.OffHeapImageCache;
+import com.example.smt_management.storage.StoredImage;
+
+/**
+ * Reference counting and garbage collection of content-addressed machine images.
+ * Identical uploads land on the same hash, so a vendor photo shared by dozens of
+ * machines is stored once. Counts are kept in image_blobs within the caller's
+ * transaction; blobs nobody references are deleted in the background once they
+ * have been orphaned for the grace period (which also covers uploads that were
+ * stored but never saved on a machine).
+ */
+@Service
+@Transactional
+public class ImageBlobService {
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageStore imageStore;
+    private final OffHeapImageCache imageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    public ImageBlobService(
+            ImageBlobRepository imageBlobRepository,
+            ImageStore imageStore,
+            OffHeapImageCache imageCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${image.gc.grace-period:PT1H}") Duration gracePeriod,
+            @Value("${image.gc.batch-size:100}") int batchSize) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageStore = imageStore;
+        this.imageCache = imageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+    }
+
+    // ==================== Reference Counting ====================
+
+    /**
+     * Register a blob that was just written to the store (restarting the grace period if it was orphaned)
+     */
+    public void register(StoredImage stored) {
+        imageBlobRepository.register(stored.key(), stored.size());
+    }
+
+    /**
+     * Move a machine's reference from one blob to another (either may be null)
+     */
+    public void replace(String oldHash, String newHash) {
+        if (Objects.equals(oldHash, newHash)) {
+            return;
+        }
+        if (newHash != null) {
+            imageBlobRepository.retain(newHash);
+        }
+        if (oldHash != null) {
+            imageBlobRepository.release(oldHash);
+        }
+    }
+
+    /**
+     * Drop one reference per hash, e.g. for every machine removed by a cascade delete
+     */
+    public void releaseAll(Collection<String> hashes) {
+        hashes.stream().filter(Objects::nonNull).forEach(imageBlobRepository::release);
+    }
+
+    // ==================== Garbage Collection ====================
+
+    /**
+     * Delete blobs (and their derived variants) that have been unreferenced for the grace period.
+     * Each blob is removed in its own short transaction that deletes the files while holding the
+     * deleted row: a concurrent register() of the same bytes waits for it to commit, and only then
+     * does the store check whether the file is present. A failed file delete rolls the row back.
+     */
+    @Scheduled(fixedDelayString = "${image.gc.interval:PT15M}", initialDelayString = "${image.gc.initial-delay:PT5M}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void collectGarbage() {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        List<String> candidates = imageBlobRepository.findOrphanedBefore(cutoff, Limit.of(batchSize));
+        int deleted = 0;
+        for (String hash : candidates) {
+            try {
+                Boolean removed = transactionTemplate.execute(status -> {
+                    if (imageBlobRepository.deleteIfUnreferenced(hash, cutoff) == 0) {
+                        return false;
+                    }
+                    for (ImageVariant variant : ImageVariant.values()) {
+                        deleteFile(variant.key(hash));
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(removed)) {
+                    deleted++;
+                }
+            } catch (UncheckedIOException e) {
+                AppLog.error("Failed to delete unreferenced image " + hash, e.getCause());
+            }
+        }
+        if (deleted > 0) {
+            AppLog.info("Garbage-collected " + deleted + " unreferenced machine image(s)");
+        }
+    }
+
+    private void deleteFile(String key) {
+        try {
+            imageStore.delete(key);
+            imageCache.evict(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuild counts from the machines table, repairing any drift (e.g. rows changed outside the services)
+     */
+    @Scheduled(cron = "${image.gc.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        int referenced = imageBlobRepository.recountReferenced();
+        int orphaned = imageBlobRepository.recountUnreferenced();
+        AppLog.info("Reconciled image reference counts: " + referenced + " referenced, " + orphaned + " newly orphaned");
+    }
+}
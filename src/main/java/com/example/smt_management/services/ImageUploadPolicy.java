@@ -0,0 +1,108 @@
+package com.example.smt_management.services;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.example.smt_management.exceptions.ImageUploadException;
+
+/**
+ * Size and type limits for machine image uploads.
+ * Declared values are checked before any of the body is read; the content is
+ * then checked against its magic bytes so a renamed file cannot slip through.
+ */
+@Component
+public class ImageUploadPolicy {
+
+    private static final int SNIFF_BYTES = 12;
+
+    private final long maxBytes;
+    private final Set<String> allowedTypes;
+
+    public ImageUploadPolicy(
+            @Value("${image.upload.max-bytes:5242880}") long maxBytes,
+            @Value("${image.upload.allowed-types:image/jpeg,image/png,image/gif,image/webp}") String allowedTypes) {
+        this.maxBytes = maxBytes;
+        this.allowedTypes = Arrays.stream(allowedTypes.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Validate the declared content type and length (-1 if unknown)
+     * @throws ImageUploadException 415 or 413
+     */
+    public String checkDeclared(String contentType, long length) {
+        String type = normalize(contentType);
+        if (type == null || !allowedTypes.contains(type)) {
+            throw new ImageUploadException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Unsupported image type '" + contentType + "'. Allowed: " + String.join(", ", allowedTypes));
+        }
+        if (length > maxBytes) {
+            throw new ImageUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Image is " + length + " bytes. Maximum is " + maxBytes + " bytes.");
+        }
+        return type;
+    }
+
+    /**
+     * Peek at the first bytes of the content and make sure they match the declared type.
+     * Returns a stream positioned at the start of the content.
+     * @throws ImageUploadException 415 if the content is not the declared image type
+     */
+    public InputStream checkContent(InputStream content, String declaredType) throws IOException {
+        BufferedInputStream in = content instanceof BufferedInputStream buffered ? buffered : new BufferedInputStream(content);
+        in.mark(SNIFF_BYTES);
+        byte[] header = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+
+        String detected = detectType(header);
+        if (detected == null || !detected.equals(declaredType)) {
+            throw new ImageUploadException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "File content does not match declared type " + declaredType);
+        }
+        return in;
+    }
+
+    /**
+     * Detect the image type from its magic bytes, or null if unknown
+     */
+    static String detectType(byte[] h) {
+        if (h.length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (h.length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G') {
+            return "image/png";
+        }
+        if (h.length >= 4 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8') {
+            return "image/gif";
+        }
+        if (h.length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static String normalize(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = semicolon >= 0 ? contentType.substring(0, semicolon) : contentType;
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,20 +1,32 @@
 package com.example.smt_management.services;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import com.example.smt_management.configs.TrigramSearchSetup;
+import com.example.smt_management.dtos.LineSummary;
 import com.example.smt_management.entities.Line;
 import com.example.smt_management.entities.Machine;
 import com.example.smt_management.enums.Direction;
 import com.example.smt_management.enums.LaneType;
+import com.example.smt_management.repositories.ChildCount;
 import com.example.smt_management.repositories.EntitySpecifications;
 import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.util.KeysetSlice;
 
 /**
  * Enhanced Line Service with validation, search, and business logic
@@ -25,10 +37,18 @@ public class LineService {
     
     private final LineRepository lineRepository;
     private final FloorService floorService;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final TrigramSearchSetup trigramSearch;
+    private final ApplicationEventPublisher events;
     
-    public LineService(LineRepository lineRepository, FloorService floorService) {
+    public LineService(LineRepository lineRepository, FloorService floorService,
+            CascadeDeleteService cascadeDeleteService,
+            TrigramSearchSetup trigramSearch, ApplicationEventPublisher events) {
         this.lineRepository = lineRepository;
         this.floorService = floorService;
+        this.cascadeDeleteService = cascadeDeleteService;
+        this.trigramSearch = trigramSearch;
+        this.events = events;
     }
     
     // ==================== CRUD Operations ====================
@@ -59,29 +79,40 @@ public class LineService {
      * Save new line or update existing one
      */
     public Line saveLine(Line line) {
+        Long previousFloorId = null;
+        
         // Validate line name uniqueness (for new lines)
         if (line.getId() == null) {
             validateLineNameUnique(line.getLineName());
             
-            // Validate parent floor can accept more lines
+            // Take one of the parent floor's line slots (fails if the floor is full)
             if (line.getFloorMapping() != null) {
-                floorService.validateCanAddLine(line.getFloorMapping().getId());
+                floorService.reserveLineSlot(line.getFloorMapping().getId());
             }
         } else {
             // For updates, check if name changed and if new name is unique
             Line existing = getLineById(line.getId());
+            previousFloorId = existing.getFloorId();
             if (!existing.getLineName().equals(line.getLineName())) {
                 validateLineNameUnique(line.getLineName());
             }
             
-            // If floor changed, validate new floor can accept the line
+            // If floor changed, move the line's slot to the new floor
             if (line.getFloorMapping() != null && 
                 !line.getFloorMapping().getId().equals(existing.getFloorMapping().getId())) {
-                floorService.validateCanAddLine(line.getFloorMapping().getId());
+                floorService.reserveLineSlot(line.getFloorMapping().getId());
+                floorService.releaseLineSlot(previousFloorId);
             }
         }
         
-        return lineRepository.save(line);
+        boolean created = line.getId() == null;
+        Line saved = lineRepository.save(line);
+        if (created) {
+            events.publishEvent(new PlantChangeEvent.LineCreated(saved.getId(), saved.getFloorId()));
+        } else if (!Objects.equals(previousFloorId, saved.getFloorId())) {
+            events.publishEvent(new PlantChangeEvent.LineMoved(saved.getId(), previousFloorId, saved.getFloorId()));
+        }
+        return saved;
     }
     
     /**
@@ -99,15 +130,18 @@ public class LineService {
             );
         }
         
+        Long floorId = line.getFloorId();
         lineRepository.deleteById(id);
+        floorService.releaseLineSlot(floorId);
+        events.publishEvent(new PlantChangeEvent.LineDeleted(id, floorId));
     }
     
     /**
-     * Force delete line with all its machines (cascade)
+     * Force delete line with all its machines (set-based, children first)
      */
     public void cascadeDeleteLine(Long id) {
         Line line = getLineById(id);
-        lineRepository.delete(line); // Cascade will delete all machines
+        cascadeDeleteService.deleteLine(id, line.getFloorId());
     }
     
     // ==================== Search & Filter ====================
@@ -122,10 +156,68 @@ public class LineService {
             Long floorId, 
             Pageable pageable) {
         
+        if (trigramSearch.isEnabled() && StringUtils.hasText(lineName)) {
+            Specification<Line> spec = EntitySpecifications.filterLines(null, lane, direction, floorId)
+                    .and(EntitySpecifications.fuzzyMatch(lineName, pageable.getSort(), "lineName"));
+            return lineRepository.findAll(spec, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        }
+        
         Specification<Line> spec = EntitySpecifications.filterLines(lineName, lane, direction, floorId);
         return lineRepository.findAll(spec, pageable);
     }
     
+    /**
+     * Lines page for the list view, machine counts included
+     */
+    public Page<LineSummary> getLineSummaries(Pageable pageable) {
+        return toSummaries(getAllLines(pageable));
+    }
+    
+    /**
+     * Filtered lines page for the list view, machine counts included
+     */
+    public Page<LineSummary> searchLineSummaries(
+            String lineName, 
+            LaneType lane, 
+            Direction direction, 
+            Long floorId, 
+            Pageable pageable) {
+        return toSummaries(searchLines(lineName, lane, direction, floorId, pageable));
+    }
+    
+    /**
+     * Keyset slice of lines ordered by name, starting after the given line name (no COUNT query)
+     */
+    public Slice<LineSummary> scrollLineSummaries(String lineName, Long floorId, String afterLineName, int size) {
+        Specification<Line> spec = EntitySpecifications.filterLines(lineName, null, null, floorId)
+                .and(EntitySpecifications.after("lineName", afterLineName));
+        List<Line> rows = lineRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("lineName").ascending())
+                .project("floorMapping")
+                .limit(size + 1)
+                .all());
+        Slice<Line> slice = KeysetSlice.of(rows, size);
+        Map<Long, Long> counts = machineCountsByLine(slice.getContent());
+        return slice.map(line -> LineSummary.of(line, counts.getOrDefault(line.getId(), 0L)));
+    }
+    
+    /**
+     * Attach machine counts to a page of lines with one grouped query, without touching Line.machines
+     */
+    private Page<LineSummary> toSummaries(Page<Line> page) {
+        Map<Long, Long> counts = machineCountsByLine(page.getContent());
+        return page.map(line -> LineSummary.of(line, counts.getOrDefault(line.getId(), 0L)));
+    }
+    
+    private Map<Long, Long> machineCountsByLine(List<Line> lines) {
+        if (lines.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> lineIds = lines.stream().map(Line::getId).toList();
+        return lineRepository.countMachinesByLineIds(lineIds).stream()
+                .collect(Collectors.toMap(ChildCount::getParentId, ChildCount::getCount));
+    }
+    
     /**
      * Get all lines for a specific floor
      */
@@ -181,26 +273,59 @@ public class LineService {
     }
     
     /**
-     * Check if line can accept more machines (max 10)
+     * Check if line can accept more machines (max Line.MAX_MACHINES)
      */
     public boolean canAddMachine(Long lineId) {
-        return countMachines(lineId) < 10;
+        return countMachines(lineId) < Line.MAX_MACHINES;
     }
     
     /**
      * Validate line can accept a new machine
-     * @throws IllegalStateException if line already has 10 machines
+     * @throws IllegalStateException if line already has Line.MAX_MACHINES machines
      */
     public void validateCanAddMachine(Long lineId) {
         Long machineCount = countMachines(lineId);
-        if (machineCount >= 10) {
+        if (machineCount >= Line.MAX_MACHINES) {
             Line line = getLineById(lineId);
             throw new IllegalStateException(
-                "Line '" + line.getLineName() + "' already has " + machineCount + " machines. Maximum is 10."
+                "Line '" + line.getLineName() + "' already has " + machineCount + " machines. Maximum is "
+                    + Line.MAX_MACHINES + "."
             );
         }
     }
     
+    /**
+     * Atomically take one of the line's Line.MAX_MACHINES machine slots (single conditional UPDATE on the line row)
+     * @throws IllegalStateException if line already has Line.MAX_MACHINES machines
+     */
+    public void reserveMachineSlot(Long lineId) {
+        if (lineRepository.reserveMachineSlot(lineId, Line.MAX_MACHINES) == 0) {
+            validateCanAddMachine(lineId);
+            // Counter and table disagree (e.g. rows changed outside the services): still refuse
+            Line line = getLineById(lineId);
+            throw new IllegalStateException(
+                "Line '" + line.getLineName() + "' already has " + Line.MAX_MACHINES + " machines. Maximum is "
+                    + Line.MAX_MACHINES + "."
+            );
+        }
+    }
+    
+    /**
+     * Give back a machine slot when a machine leaves the line
+     */
+    public void releaseMachineSlot(Long lineId) {
+        if (lineId != null) {
+            lineRepository.releaseMachineSlot(lineId);
+        }
+    }
+    
+    /**
+     * Rebuild all machine slot counters from the machines table
+     */
+    public int recountMachineSlots() {
+        return lineRepository.recountMachineSlots();
+    }
+    
     /**
      * Count lines in a specific floor
      */
@@ -216,8 +341,8 @@ public class LineService {
     public Line addMachineToLine(Long lineId, Machine machine) {
         Line line = getLineById(lineId);
         
-        // Validate 10-machine limit
-        validateCanAddMachine(lineId);
+        // Take a slot under the Line.MAX_MACHINES limit
+        reserveMachineSlot(lineId);
         
         // Add machine using entity helper method
         line.addMachine(machine);
@@ -231,6 +356,7 @@ public class LineService {
     public Line removeMachineFromLine(Long lineId, Machine machine) {
         Line line = getLineById(lineId);
         line.removeMachine(machine);
+        releaseMachineSlot(lineId);
         return lineRepository.save(line);
     }
     
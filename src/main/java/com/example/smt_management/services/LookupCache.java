@@ -0,0 +1,78 @@
+package com.example.smt_management.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.smt_management.dtos.LookupOption;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Versioned in-memory copy of the floor and line option lists behind the searchable selects.
+ * Registered as the JPA listener of Floor and Line: any change bumps the version, and a
+ * snapshot taken at an older version is reloaded on its next read.
+ */
+@Component
+public class LookupCache {
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<LookupType, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Current options of a type, reloaded if the cached snapshot is stale
+     */
+    public List<LookupOption> get(LookupType type, Supplier<List<LookupOption>> loader) {
+        // Read the version before loading: a change committed mid-load leaves the snapshot stale
+        long current = version.get();
+        Snapshot snapshot = snapshots.get(type);
+        if (snapshot != null && snapshot.version() == current) {
+            return snapshot.options();
+        }
+        List<LookupOption> loaded = List.copyOf(loader.get());
+        snapshots.put(type, new Snapshot(current, loaded));
+        return loaded;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Bump the version now and again once the current transaction completes,
+     * so a reader that loaded pre-commit rows in between does not keep them
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(Object entity) {
+        invalidate();
+    }
+
+    public enum LookupType {
+        FLOORS, LINES
+    }
+
+    private record Snapshot(long version, List<LookupOption> options) {
+    }
+}
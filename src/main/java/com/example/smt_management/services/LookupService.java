@@ -0,0 +1,94 @@
+package com.example.smt_management.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.smt_management.dtos.LookupOption;
+import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.services.LookupCache.LookupType;
+
+/**
+ * Prefix-filtered, capped floor and line options for the searchable selects,
+ * served from {@link LookupCache} instead of loading every entity per page view
+ */
+@Service
+@Transactional(readOnly = true)
+public class LookupService {
+
+    private final LookupCache lookupCache;
+    private final FloorRepository floorRepository;
+    private final LineRepository lineRepository;
+    private final int maxResults;
+
+    public LookupService(
+            LookupCache lookupCache,
+            FloorRepository floorRepository,
+            LineRepository lineRepository,
+            @Value("${lookup.max-results:20}") int maxResults) {
+        this.lookupCache = lookupCache;
+        this.floorRepository = floorRepository;
+        this.lineRepository = lineRepository;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Options whose label (or any word of it) starts with the prefix, at most lookup.max-results
+     */
+    public Matches search(LookupType type, String prefix) {
+        String needle = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        List<LookupOption> options = new ArrayList<>();
+        for (LookupOption option : all(type)) {
+            if (!matches(option, needle)) {
+                continue;
+            }
+            if (options.size() == maxResults) {
+                return new Matches(options, true);
+            }
+            options.add(option);
+        }
+        return new Matches(options, false);
+    }
+
+    /**
+     * Option for an id, e.g. to pre-render the current selection of an edit form
+     */
+    public Optional<LookupOption> find(LookupType type, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return all(type).stream().filter(option -> Objects.equals(option.getId(), id)).findFirst();
+    }
+
+    public long version() {
+        return lookupCache.version();
+    }
+
+    private List<LookupOption> all(LookupType type) {
+        return switch (type) {
+            case FLOORS -> lookupCache.get(type, floorRepository::findAllLookupOptions);
+            case LINES -> lookupCache.get(type, lineRepository::findAllLookupOptions);
+        };
+    }
+
+    private static boolean matches(LookupOption option, String needle) {
+        if (needle.isEmpty()) {
+            return true;
+        }
+        String label = option.getLabel().toLowerCase(Locale.ROOT);
+        return label.startsWith(needle) || label.contains(" " + needle) || label.contains("(" + needle);
+    }
+
+    /**
+     * Capped result; truncated when more options matched than were returned
+     */
+    public record Matches(List<LookupOption> options, boolean truncated) {
+    }
+}
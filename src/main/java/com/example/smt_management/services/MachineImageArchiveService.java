@@ -0,0 +1,284 @@
+package com.example.smt_management.services;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.smt_management.dtos.ImageArchiveResult;
+import com.example.smt_management.entities.Machine;
+import com.example.smt_management.exceptions.ImageUploadException;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.repositories.MachineRepository.ImageEntry;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.StoredImage;
+
+/**
+ * ZIP archive of every machine image, one entry per machine named after its serial
+ * (URL-encoded, plus the image extension), and the reverse import.
+ * The archive is written entry by entry straight into the response and read entry by
+ * entry straight from the request: neither side is buffered, only one image is in
+ * flight at a time. Images are already compressed, so entries are stored uncompressed.
+ */
+@Service
+public class MachineImageArchiveService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PAGE_SIZE = 500;
+    private static final Map<String, String> EXTENSIONS = Map.of(
+        "image/jpeg", "jpg", "image/png", "png", "image/gif", "gif", "image/webp", "webp");
+
+    private final MachineRepository machineRepository;
+    private final ImageStore imageStore;
+    private final ImageUploadPolicy uploadPolicy;
+    private final ImageBlobService imageBlobService;
+    private final ThumbnailService thumbnailService;
+    private final TransactionTemplate transactions;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public MachineImageArchiveService(
+            MachineRepository machineRepository,
+            ImageStore imageStore,
+            ImageUploadPolicy uploadPolicy,
+            ImageBlobService imageBlobService,
+            ThumbnailService thumbnailService,
+            TransactionTemplate transactions,
+            @Value("${image.archive.batch-size:100}") int batchSize,
+            @Value("${import.max-errors:100}") int maxErrors) {
+        this.machineRepository = machineRepository;
+        this.imageStore = imageStore;
+        this.uploadPolicy = uploadPolicy;
+        this.imageBlobService = imageBlobService;
+        this.thumbnailService = thumbnailService;
+        this.transactions = transactions;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    // ==================== Export ====================
+
+    /**
+     * Write the archive to the output. Machines are read in keyset pages, so no
+     * connection is held while a slow client downloads.
+     * @return number of images written
+     */
+    public int exportArchive(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        int written = 0;
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.NO_COMPRESSION);
+
+        String after = "";
+        List<ImageEntry> page;
+        do {
+            page = machineRepository.findImageEntriesAfter(after, Limit.of(PAGE_SIZE));
+            for (ImageEntry entry : page) {
+                Optional<Resource> blob = imageStore.load(entry.getImageHash());
+                if (blob.isEmpty()) {
+                    AppLog.warn("Image " + entry.getImageHash() + " of machine " + entry.getMachineSerial()
+                            + " is missing from the store, left out of the archive");
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry(entryName(entry.getMachineSerial(), entry.getImageContentType())));
+                try (InputStream in = blob.get().getInputStream()) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+                written++;
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getMachineSerial();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        zip.finish();
+        zip.flush();
+        AppLog.info("Image archive exported: " + written + " images in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return written;
+    }
+
+    // ==================== Import ====================
+
+    /**
+     * Read an archive from the request stream and point each machine at its image.
+     * Every entry goes through the upload policy (type by extension, size, magic bytes) into
+     * the store; machines are updated in batches, one transaction per batch. Entries without
+     * a matching machine or with a rejected image are skipped and reported.
+     */
+    public ImageArchiveResult importArchive(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Map<String, StoredEntry> batch = new LinkedHashMap<>();
+
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(body, BUFFER_SIZE));
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            progress.entries++;
+            String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+            try {
+                String serial = serialOf(name);
+                String contentType = uploadPolicy.checkDeclared(contentTypeOf(name), entry.getSize());
+                InputStream content = new EntryInputStream(zip, uploadPolicy.getMaxBytes());
+                try (InputStream in = uploadPolicy.checkContent(content, contentType)) {
+                    // Unreferenced until its batch commits; collected after the grace period otherwise
+                    StoredImage stored = imageStore.store(in, imageBlobService::register);
+                    batch.put(serial, new StoredEntry(name, stored.key(), contentType));
+                }
+            } catch (ImageUploadException e) {
+                progress.skip(name + ": " + e.getMessage(), maxErrors);
+            }
+            if (batch.size() >= batchSize) {
+                apply(batch, progress);
+            }
+        }
+        apply(batch, progress);
+
+        AppLog.info("Image archive imported: " + progress.updated + " of " + progress.entries + " entries in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return new ImageArchiveResult(progress.entries, progress.updated, progress.skipped, List.copyOf(progress.errors));
+    }
+
+    /**
+     * Point one batch of machines at their new images in a single transaction
+     */
+    private void apply(Map<String, StoredEntry> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> hashes = new ArrayList<>(batch.size());
+        transactions.executeWithoutResult(status -> {
+            for (Machine machine : machineRepository.findAllById(batch.keySet())) {
+                StoredEntry image = batch.remove(machine.getMachineSerial());
+                imageBlobService.replace(machine.getImageHash(), image.hash());
+                machine.setImageHash(image.hash());
+                machine.setImageContentType(image.contentType());
+                hashes.add(image.hash());
+            }
+        });
+        progress.updated += hashes.size();
+        batch.values().forEach(missing -> progress.skip(missing.name() + ": no machine with this serial", maxErrors));
+        batch.clear();
+        hashes.forEach(thumbnailService::queue);
+    }
+
+    // ==================== Entry names ====================
+
+    static String entryName(String machineSerial, String contentType) {
+        String extension = EXTENSIONS.getOrDefault(contentType, "jpg");
+        return URLEncoder.encode(machineSerial, StandardCharsets.UTF_8) + "." + extension;
+    }
+
+    private static String serialOf(String name) {
+        int dot = name.lastIndexOf('.');
+        String encoded = dot > 0 ? name.substring(0, dot) : name;
+        try {
+            return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ImageUploadException(HttpStatus.BAD_REQUEST, "Entry name is not a valid serial");
+        }
+    }
+
+    private static String contentTypeOf(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) {
+            return "image/jpeg";
+        }
+        return EXTENSIONS.entrySet().stream()
+            .filter(known -> known.getValue().equals(extension))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse(null);
+    }
+
+    // ==================== Types ====================
+
+    private record StoredEntry(String name, String hash, String contentType) {
+    }
+
+    private static class Progress {
+        private long entries;
+        private long updated;
+        private long skipped;
+        private final List<String> errors = new ArrayList<>();
+
+        void skip(String reason, int maxErrors) {
+            skipped++;
+            if (errors.size() < maxErrors) {
+                errors.add(reason);
+            }
+        }
+    }
+
+    /**
+     * The current ZIP entry as a stream: fails once more than the image size limit has been
+     * inflated (entry sizes in the archive are not trusted) and leaves the archive open on close
+     */
+    private static class EntryInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        EntryInputStream(ZipInputStream zip, long limit) {
+            super(zip);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (count > limit) {
+                throw new ImageUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Image is larger than the maximum of " + limit + " bytes");
+            }
+        }
+
+        @Override
+        public void close() {
+            // The archive stays open for the next entry
+        }
+    }
+}
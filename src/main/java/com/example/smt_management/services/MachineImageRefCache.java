@@ -0,0 +1,86 @@
+package com.example.smt_management.services;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.smt_management.entities.Machine;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * In-memory machine serial -> image hash lookup, so image requests from the andon
+ * screens are answered without touching PostgreSQL.
+ * Registered as the JPA listener of Machine: any insert, update or delete
+ * (including line/floor cascade deletes) evicts the entry once the transaction commits.
+ */
+@Component
+public class MachineImageRefCache {
+
+    private final Map<String, ImageRef> refs = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public MachineImageRefCache(@Value("${image.ref-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cached image reference of a machine, loading it on a miss.
+     * Unknown serials are not cached.
+     */
+    public Optional<ImageRef> get(String machineSerial, Function<String, Optional<ImageRef>> loader) {
+        ImageRef cached = refs.get(machineSerial);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ImageRef> loaded = loader.apply(machineSerial);
+        loaded.ifPresent(ref -> {
+            if (refs.size() >= maxEntries) {
+                refs.clear();
+            }
+            refs.put(machineSerial, ref);
+        });
+        return loaded;
+    }
+
+    /**
+     * Drop the entry now and again after the current transaction commits,
+     * so a concurrent reader cannot re-cache the pre-commit value
+     */
+    public void evict(String machineSerial) {
+        refs.remove(machineSerial);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    refs.remove(machineSerial);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        refs.clear();
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onMachineChanged(Machine machine) {
+        evict(machine.getMachineSerial());
+    }
+
+    /**
+     * Image hash (null if the machine has no image) and its content type
+     */
+    public record ImageRef(String hash, String contentType) {
+    }
+}
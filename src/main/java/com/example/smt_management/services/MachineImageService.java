@@ -0,0 +1,124 @@
+package com.example.smt_management.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.smt_management.entities.Machine;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.services.MachineImageRefCache.ImageRef;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.ImageVariant;
+import com.example.smt_management.storage.OffHeapImageCache;
+import com.example.smt_management.storage.StoredImage;
+
+/**
+ * Machine image handling on top of the ImageStore.
+ * Machines only keep the content hash; bytes are streamed in and out of the store.
+ */
+@Service
+@Transactional
+public class MachineImageService {
+
+    /** Legacy rows were always rendered as JPEG, and derived variants are JPEG */
+    private static final String DEFAULT_CONTENT_TYPE = "image/jpeg";
+
+    private final ImageStore imageStore;
+    private final MachineRepository machineRepository;
+    private final ThumbnailService thumbnailService;
+    private final ImageUploadPolicy uploadPolicy;
+    private final MachineImageRefCache refCache;
+    private final OffHeapImageCache imageCache;
+    private final ImageBlobService imageBlobService;
+
+    public MachineImageService(ImageStore imageStore, MachineRepository machineRepository,
+            ThumbnailService thumbnailService, ImageUploadPolicy uploadPolicy,
+            MachineImageRefCache refCache, OffHeapImageCache imageCache, ImageBlobService imageBlobService) {
+        this.imageStore = imageStore;
+        this.machineRepository = machineRepository;
+        this.thumbnailService = thumbnailService;
+        this.uploadPolicy = uploadPolicy;
+        this.refCache = refCache;
+        this.imageCache = imageCache;
+        this.imageBlobService = imageBlobService;
+    }
+
+    /**
+     * Stream an uploaded file into the image store and point the machine at it.
+     * Limits are checked before the body is read; the multipart part is never loaded into memory.
+     */
+    public void attachImage(Machine machine, MultipartFile file) throws IOException {
+        String contentType = uploadPolicy.checkDeclared(file.getContentType(), file.getSize());
+
+        try (InputStream in = uploadPolicy.checkContent(file.getInputStream(), contentType)) {
+            // Registered before publishing; not referenced until the machine is saved and
+            // collected after the grace period if it never is
+            StoredImage stored = imageStore.store(in, imageBlobService::register);
+            machine.setImageHash(stored.key());
+            machine.setImageContentType(contentType);
+            thumbnailService.queue(stored.key());
+        }
+    }
+
+    /**
+     * Point an existing machine at an image that is already in the store (completed resumable upload)
+     */
+    public void assignImage(String machineSerial, StoredImage stored, String contentType) {
+        Machine machine = machineRepository.findById(machineSerial)
+                .orElseThrow(() -> new RuntimeException("Machine not found with serial: " + machineSerial));
+        imageBlobService.replace(machine.getImageHash(), stored.key());
+        machine.setImageHash(stored.key());
+        machine.setImageContentType(contentType);
+        thumbnailService.queue(stored.key());
+    }
+
+    /**
+     * Find an image variant of a machine as a streamable resource.
+     * The serial -> hash lookup is cached, so repeated hits do not open a transaction or touch the database,
+     * and hot blobs are served from the off-heap image cache instead of the store.
+     * A derived variant that is not ready yet is re-queued and reported as missing; the original
+     * is never served in its place, as it still carries the uploader's metadata (EXIF, GPS).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<MachineImage> findImage(String machineSerial, ImageVariant variant) {
+        return refCache.get(machineSerial, this::loadImageRef)
+                .filter(ref -> ref.hash() != null)
+                .flatMap(ref -> {
+                    String hash = ref.hash();
+                    if (variant.isDerived()) {
+                        Optional<Resource> derived = imageCache.load(variant.key(hash), imageStore::load);
+                        if (derived.isEmpty()) {
+                            thumbnailService.queue(hash);
+                        }
+                        return derived.map(resource -> new MachineImage(hash, variant, DEFAULT_CONTENT_TYPE, resource));
+                    }
+                    String contentType = ref.contentType() != null ? ref.contentType() : DEFAULT_CONTENT_TYPE;
+                    return imageCache.load(hash, imageStore::load)
+                            .map(resource -> new MachineImage(hash, ImageVariant.ORIGINAL, contentType, resource));
+                });
+    }
+
+    private Optional<ImageRef> loadImageRef(String machineSerial) {
+        return machineRepository.findImageRef(machineSerial)
+                .map(ref -> new ImageRef(ref.getImageHash(), ref.getImageContentType()));
+    }
+
+    /**
+     * A machine image ready to be streamed
+     */
+    public record MachineImage(String hash, ImageVariant variant, String contentType, Resource resource) {
+
+        /**
+         * Strong validator: the content hash plus the variant actually served
+         */
+        public String etag() {
+            return variant.key(hash);
+        }
+    }
+}
@@ -3,16 +3,23 @@ package com.example.smt_management.services;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import com.example.smt_management.configs.TrigramSearchSetup;
 import com.example.smt_management.entities.Machine;
 import com.example.smt_management.enums.MachineType;
 import com.example.smt_management.repositories.EntitySpecifications;
 import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.util.KeysetSlice;
 
 /**
  * Enhanced Machine Service with validation, search, and business logic
@@ -21,12 +28,23 @@ import com.example.smt_management.repositories.MachineRepository;
 @Transactional
 public class MachineService {
     
+    /** Columns the list page's free-text search looks in, in every search mode */
+    private static final String[] SEARCH_ATTRIBUTES = { "machineSerial", "model", "manufacturingCompany" };
+    
     private final MachineRepository machineRepository;
     private final LineService lineService;
+    private final ImageBlobService imageBlobService;
+    private final TrigramSearchSetup trigramSearch;
+    private final ApplicationEventPublisher events;
     
-    public MachineService(MachineRepository machineRepository, LineService lineService) {
+    public MachineService(MachineRepository machineRepository, LineService lineService,
+            ImageBlobService imageBlobService, TrigramSearchSetup trigramSearch,
+            ApplicationEventPublisher events) {
         this.machineRepository = machineRepository;
         this.lineService = lineService;
+        this.imageBlobService = imageBlobService;
+        this.trigramSearch = trigramSearch;
+        this.events = events;
     }
     
     // ==================== CRUD Operations ====================
@@ -57,40 +75,56 @@ public class MachineService {
      * Save new machine or update existing one
      */
     public Machine saveMachine(Machine machine) {
+        PlantChangeEvent change;
+        
         // For new machines, check if serial already exists
         if (!machineRepository.existsById(machine.getMachineSerial())) {
-            validateMachineSerialUnique(machine.getMachineSerial());
-            
-            // Validate parent line can accept more machines
+            // existsById just ruled out a duplicate serial; take one of the line's slots (fails if full)
             if (machine.getLineMapping() != null) {
-                lineService.validateCanAddMachine(machine.getLineMapping().getId());
+                lineService.reserveMachineSlot(machine.getLineMapping().getId());
             }
+            imageBlobService.replace(null, machine.getImageHash());
+            change = new PlantChangeEvent.MachineCreated(machine.getLineId(), machine.getType());
         } else {
             // For updates, check if line changed and validate new line
             Machine existing = getMachineBySerial(machine.getMachineSerial());
             if (machine.getLineMapping() != null && 
                 !machine.getLineMapping().getId().equals(existing.getLineMapping().getId())) {
-                lineService.validateCanAddMachine(machine.getLineMapping().getId());
+                lineService.reserveMachineSlot(machine.getLineMapping().getId());
+                lineService.releaseMachineSlot(existing.getLineId());
             }
+
+            // Keep the current image when the edit form did not upload a new one
+            if (!machine.hasImage()) {
+                machine.setImageHash(existing.getImageHash());
+                machine.setImageContentType(existing.getImageContentType());
+            }
+            imageBlobService.replace(existing.getImageHash(), machine.getImageHash());
+            change = new PlantChangeEvent.MachineChanged(
+                existing.getLineId(), existing.getType(), machine.getLineId(), machine.getType());
         }
-        
-        return machineRepository.save(machine);
+
+        Machine saved = machineRepository.save(machine);
+        events.publishEvent(change);
+        return saved;
     }
     
     /**
      * Delete machine
      */
     public void deleteMachine(String machineSerial) {
-        if (!machineRepository.existsById(machineSerial)) {
-            throw new RuntimeException("Machine not found with serial: " + machineSerial);
-        }
-        machineRepository.deleteById(machineSerial);
+        Machine machine = machineRepository.findById(machineSerial)
+                .orElseThrow(() -> new RuntimeException("Machine not found with serial: " + machineSerial));
+        machineRepository.delete(machine);
+        lineService.releaseMachineSlot(machine.getLineId());
+        imageBlobService.replace(machine.getImageHash(), null);
+        events.publishEvent(new PlantChangeEvent.MachineDeleted(machine.getLineId(), machine.getType()));
     }
     
     // ==================== Search & Filter ====================
     
     /**
-     * Search machines with filters
+     * Search machines with filters; the free-text term (model) matches serial, model or company
      */
     public Page<Machine> searchMachines(
             String model,
@@ -100,12 +134,36 @@ public class MachineService {
             Long lineId,
             Pageable pageable) {
         
+        if (trigramSearch.isEnabled() && StringUtils.hasText(model)) {
+            // Free-text term matches serial, model or company, ranked by similarity
+            Specification<Machine> spec = EntitySpecifications.filterMachines(
+                null, type, yearOfManufacturing, manufacturingCompany, lineId
+            ).and(EntitySpecifications.fuzzyMatch(
+                model, pageable.getSort(), SEARCH_ATTRIBUTES));
+            return machineRepository.findAll(spec, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        }
+        
         Specification<Machine> spec = EntitySpecifications.filterMachines(
-            model, type, yearOfManufacturing, manufacturingCompany, lineId
-        );
+            null, type, yearOfManufacturing, manufacturingCompany, lineId
+        ).and(EntitySpecifications.containsAny(model, SEARCH_ATTRIBUTES));
         return machineRepository.findAll(spec, pageable);
     }
     
+    /**
+     * Keyset slice of machines ordered by serial, starting after the given serial (no COUNT query)
+     */
+    public Slice<Machine> scrollMachines(String model, Long lineId, String afterSerial, int size) {
+        Specification<Machine> spec = EntitySpecifications.filterMachines(null, null, null, null, lineId)
+                .and(EntitySpecifications.containsAny(model, SEARCH_ATTRIBUTES))
+                .and(EntitySpecifications.after("machineSerial", afterSerial));
+        List<Machine> rows = machineRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("machineSerial").ascending())
+                .project("lineMapping", "lineMapping.floorMapping")
+                .limit(size + 1)
+                .all());
+        return KeysetSlice.of(rows, size);
+    }
+    
     /**
      * Get all machines for a specific line
      */
@@ -150,16 +208,6 @@ public class MachineService {
         return machineRepository.existsByMachineSerial(machineSerial);
     }
     
-    /**
-     * Validate machine serial is unique
-     * @throws RuntimeException if serial already exists
-     */
-    private void validateMachineSerialUnique(String machineSerial) {
-        if (existsByMachineSerial(machineSerial)) {
-            throw new RuntimeException("Machine serial '" + machineSerial + "' already exists");
-        }
-    }
-    
     /**
      * Count machines in a specific line
      */
@@ -190,6 +238,6 @@ public class MachineService {
      * Get count by machine type
      */
     public long countByType(MachineType type) {
-        return machineRepository.findByType(type).size();
+        return machineRepository.countByType(type);
     }
 }
\ No newline at end of file
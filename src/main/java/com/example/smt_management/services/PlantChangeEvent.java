@@ -0,0 +1,41 @@
+package com.example.smt_management.services;
+
+import com.example.smt_management.enums.MachineType;
+
+/**
+ * Structural changes published by the floor, line and machine services.
+ * Listeners receive them after the publishing transaction commits.
+ */
+public sealed interface PlantChangeEvent {
+
+    record FloorCreated(Long floorId) implements PlantChangeEvent {
+    }
+
+    record FloorDeleted(Long floorId) implements PlantChangeEvent {
+    }
+
+    record LineCreated(Long lineId, Long floorId) implements PlantChangeEvent {
+    }
+
+    record LineDeleted(Long lineId, Long floorId) implements PlantChangeEvent {
+    }
+
+    record LineMoved(Long lineId, Long fromFloorId, Long toFloorId) implements PlantChangeEvent {
+    }
+
+    record MachineCreated(Long lineId, MachineType type) implements PlantChangeEvent {
+    }
+
+    record MachineDeleted(Long lineId, MachineType type) implements PlantChangeEvent {
+    }
+
+    record MachineChanged(Long fromLineId, MachineType fromType, Long toLineId, MachineType toType)
+            implements PlantChangeEvent {
+    }
+
+    /**
+     * Many rows changed at once (cascade deletes, bulk operations): listeners should reload
+     */
+    record BulkChange(String reason) implements PlantChangeEvent {
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.smt_management.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.entities.Machine;
+import com.example.smt_management.enums.PlantDataset;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.util.CsvRecordWriter;
+import com.example.smt_management.util.JsonRecordWriter;
+import com.example.smt_management.util.RecordWriter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams floors, lines or machines as CSV, NDJSON or a JSON array in the column layout
+ * the bulk import reads. Rows come from a forward-only cursor (JDBC fetch size 500) and
+ * the persistence context is cleared after every fetch batch, so memory stays flat no
+ * matter how large the fleet is. Machine images are only embedded (base64) on request.
+ */
+@Service
+public class PlantExportService {
+
+    /** Matches the fetch size hint on the repository stream queries */
+    private static final int BATCH_SIZE = 500;
+    private static final List<String> IMAGE_COLUMNS = List.of("imageContentType", "image");
+
+    private final FloorRepository floorRepository;
+    private final LineRepository lineRepository;
+    private final MachineRepository machineRepository;
+    private final ImageStore imageStore;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+
+    public PlantExportService(
+            FloorRepository floorRepository,
+            LineRepository lineRepository,
+            MachineRepository machineRepository,
+            ImageStore imageStore,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.floorRepository = floorRepository;
+        this.lineRepository = lineRepository;
+        this.machineRepository = machineRepository;
+        this.imageStore = imageStore;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Columns written for a dataset
+     */
+    public List<String> columns(PlantDataset dataset, boolean includeImages) {
+        if (dataset != PlantDataset.MACHINES || !includeImages) {
+            return dataset.columns();
+        }
+        List<String> columns = new ArrayList<>(dataset.columns());
+        columns.addAll(IMAGE_COLUMNS);
+        return columns;
+    }
+
+    /**
+     * Write the whole dataset to the output (runs in its own read-only transaction)
+     */
+    public void export(PlantDataset dataset, Format format, boolean includeImages, OutputStream out) throws IOException {
+        boolean images = includeImages && dataset == PlantDataset.MACHINES;
+        long start = System.nanoTime();
+        try (RecordWriter writer = format.open(out, columns(dataset, images), objectMapper)) {
+            long rows = readOnly.execute(status -> switch (dataset) {
+                case FLOORS -> write(floorRepository.streamAll(), writer, this::floorRow);
+                case LINES -> write(lineRepository.streamAllWithFloor(), writer, this::lineRow);
+                case MACHINES -> write(machineRepository.streamAllWithLine(), writer,
+                    machine -> machineRow(machine, images));
+            });
+            AppLog.info("Exported " + rows + " " + dataset.name().toLowerCase(Locale.ROOT) + " as " + format
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> long write(Stream<T> stream, RecordWriter writer, RowMapper<T> mapper) {
+        long rows = 0;
+        try (stream) {
+            for (Iterator<T> it = stream.iterator(); it.hasNext();) {
+                writer.write(mapper.row(it.next()));
+                if (++rows % BATCH_SIZE == 0) {
+                    // Drop the batch just written from the persistence context and push it to the client
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    // ==================== Rows ====================
+
+    private List<?> floorRow(Floor floor) {
+        return List.of(floor.getName());
+    }
+
+    private List<?> lineRow(Line line) {
+        return Arrays.asList(line.getLineName(), line.getLane(), line.getDirection(), line.getFloorName());
+    }
+
+    private List<?> machineRow(Machine machine, boolean includeImage) throws IOException {
+        List<Object> row = new ArrayList<>(8);
+        row.add(machine.getMachineSerial());
+        row.add(machine.getModel());
+        row.add(machine.getType());
+        row.add(machine.getYearOfManufacturing());
+        row.add(machine.getManufacturingCompany());
+        row.add(machine.getLineName());
+        if (includeImage) {
+            Optional<Resource> image = machine.hasImage() ? imageStore.load(machine.getImageHash()) : Optional.empty();
+            row.add(image.isPresent() ? machine.getImageContentType() : null);
+            row.add(image.isPresent() ? encode(image.get()) : null);
+        }
+        return row;
+    }
+
+    private static String encode(Resource image) throws IOException {
+        try (InputStream in = image.getInputStream()) {
+            return Base64.getEncoder().encodeToString(in.readAllBytes());
+        }
+    }
+
+    // ==================== Types ====================
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        List<?> row(T entity) throws IOException;
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson"),
+        JSON("application/json", "json");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Optional<Format> fromParam(String value) {
+            try {
+                return Optional.of(valueOf(value.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        RecordWriter open(OutputStream out, List<String> columns, ObjectMapper mapper) throws IOException {
+            return switch (this) {
+                case CSV -> new CsvRecordWriter(
+                    new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024), columns);
+                case NDJSON -> new JsonRecordWriter(mapper, out, columns, false);
+                case JSON -> new JsonRecordWriter(mapper, out, columns, true);
+            };
+        }
+    }
+}
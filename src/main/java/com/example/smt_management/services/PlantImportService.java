@@ -0,0 +1,599 @@
+package com.example.smt_management.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.smt_management.dtos.ImportProgress;
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.entities.Machine;
+import com.example.smt_management.enums.Direction;
+import com.example.smt_management.enums.LaneType;
+import com.example.smt_management.enums.MachineType;
+import com.example.smt_management.enums.PlantDataset;
+import com.example.smt_management.exceptions.ImportException;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.PlantBulkRepository;
+import com.example.smt_management.repositories.PlantBulkRepository.SlotCounter;
+import com.example.smt_management.util.CsvRecordReader;
+import com.example.smt_management.util.JsonRecordReader;
+import com.example.smt_management.util.RecordReader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import of floors, lines or machines from CSV or JSON (array or NDJSON).
+ * The request body is spooled to disk, then a background job stream-parses it one
+ * record at a time, validates each row in memory against the keys preloaded at the
+ * start (unique names / serials, parents by name, the 10-per-parent caps) and writes
+ * accepted rows in JDBC batches, one transaction per batch. Invalid rows are skipped
+ * and reported; progress is polled through {@link #find}.
+ */
+@Service
+public class PlantImportService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_LINES_PER_FLOOR = Floor.MAX_LINES;
+    private static final int MAX_MACHINES_PER_LINE = Line.MAX_MACHINES;
+
+    private final PlantBulkRepository bulkRepository;
+    private final TransactionTemplate transactions;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final LookupCache lookupCache;
+    private final HibernateCacheService hibernateCache;
+    private final GlobalSearchService searchService;
+    private final ApplicationEventPublisher events;
+    private final Path importDir;
+    private final long maxBytes;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public PlantImportService(
+            PlantBulkRepository bulkRepository,
+            TransactionTemplate transactions,
+            Validator validator,
+            ObjectMapper objectMapper,
+            LookupCache lookupCache,
+            HibernateCacheService hibernateCache,
+            GlobalSearchService searchService,
+            ApplicationEventPublisher events,
+            @Value("${import.dir:data/imports}") String importDir,
+            @Value("${import.max-bytes:268435456}") long maxBytes,
+            @Value("${import.batch-size:1000}") int batchSize,
+            @Value("${import.max-errors:100}") int maxErrors,
+            @Value("${import.job-retention:PT1H}") Duration retention,
+            @Value("${import.queue-capacity:4}") int queueCapacity) {
+        this.bulkRepository = bulkRepository;
+        this.transactions = transactions;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.lookupCache = lookupCache;
+        this.hibernateCache = hibernateCache;
+        this.searchService = searchService;
+        this.events = events;
+        this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+        // One import at a time: they compete for the same parent rows and counters
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            1, 1, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "plant-import-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // ==================== Jobs ====================
+
+    /**
+     * Spool the body to disk and queue the import
+     * @throws ImportException for an unsupported format, an oversized body or a full queue
+     */
+    public ImportProgress submit(PlantDataset dataset, String contentType, InputStream body) throws IOException {
+        Format format = Format.of(contentType);
+        Job job = new Job(UUID.randomUUID().toString(), dataset);
+        Files.createDirectories(importDir);
+        Path file = importDir.resolve(job.id + ".upload");
+
+        try {
+            job.bytesTotal = spool(body, file);
+            jobs.put(job.id, job);
+            executor.execute(() -> run(job, file, format));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(file);
+            throw new ImportException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports queued, try again later");
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        AppLog.info("Queued import " + job.id + " of " + dataset + " (" + job.bytesTotal + " bytes)");
+        return job.progress();
+    }
+
+    public Optional<ImportProgress> find(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::progress);
+    }
+
+    /**
+     * Forget finished jobs once they have been retained long enough to be polled
+     */
+    @Scheduled(fixedDelayString = "${import.job-retention:PT1H}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long spool(InputStream body, Path file) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new ImportException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Import exceeds the limit of " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        if (total == 0) {
+            throw new ImportException(HttpStatus.BAD_REQUEST, "Import body is empty");
+        }
+        return total;
+    }
+
+    // ==================== Import ====================
+
+    private void run(Job job, Path file, Format format) {
+        job.state = State.RUNNING;
+        job.startedAt = Instant.now();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                RecordReader reader = format.open(Channels.newInputStream(channel), objectMapper)) {
+            job.channel = channel;
+            if (reader instanceof CsvRecordReader csv) {
+                checkHeader(job.dataset, csv.header());
+            }
+            Loader<?> loader = switch (job.dataset) {
+                case FLOORS -> new FloorLoader();
+                case LINES -> new LineLoader();
+                case MACHINES -> new MachineLoader();
+            };
+            load(job, reader, loader);
+            job.finish(State.COMPLETED, null);
+        } catch (Exception e) {
+            job.finish(State.FAILED, "Import stopped after row " + job.rowsRead + ": "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            AppLog.error("Import " + job.id + " failed", e);
+        } finally {
+            job.channel = null;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                AppLog.warn("Could not delete import spool file " + file + ": " + e.getMessage());
+            }
+            if (job.rowsImported.get() > 0) {
+                publishChanges(job);
+            }
+        }
+        AppLog.info("Import " + job.id + " " + job.state + ": " + job.rowsImported + " imported, "
+                + job.rowsRejected + " rejected in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private <T> void load(Job job, RecordReader reader, Loader<T> loader) throws IOException {
+        transactions.executeWithoutResult(status -> loader.preload());
+        List<T> batch = new ArrayList<>(batchSize);
+        Map<String, String> row;
+        while ((row = reader.next()) != null) {
+            long rowNumber = job.rowsRead.incrementAndGet();
+            try {
+                batch.add(loader.accept(row));
+            } catch (RowException e) {
+                job.reject(rowNumber, e.getMessage(), maxErrors);
+            }
+            if (batch.size() >= batchSize) {
+                write(job, loader, batch);
+            }
+        }
+        write(job, loader, batch);
+    }
+
+    private <T> void write(Job job, Loader<T> loader, List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactions.executeWithoutResult(status -> loader.write(batch));
+        // JDBC writes bypass Hibernate: cached floors and lines (counters, line collections) are stale now
+        hibernateCache.evictPlant();
+        job.rowsImported.addAndGet(batch.size());
+        job.position();
+        batch.clear();
+    }
+
+    /**
+     * Bulk inserts bypass the entity listeners: refresh the caches and statistics once per job
+     */
+    private void publishChanges(Job job) {
+        try {
+            lookupCache.invalidate();
+            searchService.rebuild();
+            events.publishEvent(new PlantChangeEvent.BulkChange(
+                "import of " + job.rowsImported + " " + job.dataset.name().toLowerCase(Locale.ROOT)));
+        } catch (RuntimeException e) {
+            AppLog.error("Refreshing caches after import " + job.id + " failed", e);
+        }
+    }
+
+    private static void checkHeader(PlantDataset dataset, List<String> header) {
+        List<String> missing = dataset.columns().stream().filter(column -> !header.contains(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new ImportException(HttpStatus.BAD_REQUEST,
+                "Missing column(s) " + missing + ", expected " + dataset.columns());
+        }
+    }
+
+    // ==================== Row loaders ====================
+
+    /**
+     * Validates rows against the in-memory key sets and writes accepted batches
+     */
+    private abstract class Loader<T> {
+
+        /** Load the keys rows are checked against (runs in a read-only transaction) */
+        abstract void preload();
+
+        /** Convert and validate one row, claiming its key and parent slot */
+        abstract T accept(Map<String, String> row) throws RowException;
+
+        /** Insert one batch (runs in its own transaction) */
+        abstract void write(List<T> batch);
+
+        void validate(Object entity) throws RowException {
+            Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                throw new RowException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            }
+        }
+    }
+
+    private class FloorLoader extends Loader<Floor> {
+
+        private Set<String> names;
+
+        @Override
+        void preload() {
+            names = new HashSet<>(bulkRepository.loadFloorSlots().keySet());
+        }
+
+        @Override
+        Floor accept(Map<String, String> row) throws RowException {
+            Floor floor = new Floor();
+            floor.setName(text(row, "name"));
+            validate(floor);
+            if (!names.add(floor.getName())) {
+                throw new RowException("Floor name '" + floor.getName() + "' already exists");
+            }
+            return floor;
+        }
+
+        @Override
+        void write(List<Floor> batch) {
+            bulkRepository.insertFloors(batch);
+        }
+    }
+
+    private class LineLoader extends Loader<Line> {
+
+        private Map<String, SlotCounter> floors;
+        private Set<String> names;
+
+        @Override
+        void preload() {
+            floors = bulkRepository.loadFloorSlots();
+            names = new HashSet<>(bulkRepository.loadLineSlots().keySet());
+        }
+
+        @Override
+        Line accept(Map<String, String> row) throws RowException {
+            Line line = new Line();
+            line.setLineName(text(row, "lineName"));
+            line.setLane(enumValue(LaneType.class, row, "lane"));
+            line.setDirection(enumValue(Direction.class, row, "direction"));
+            String floorName = text(row, "floor");
+            SlotCounter floor = floorName == null ? null : floors.get(floorName);
+            if (floorName != null && floor == null) {
+                throw new RowException("Floor not found with name: " + floorName);
+            }
+            if (floor != null) {
+                Floor parent = new Floor();
+                parent.setId(floor.id());
+                parent.setName(floorName);
+                line.setFloorMapping(parent);
+            }
+            validate(line);
+            if (names.contains(line.getLineName())) {
+                throw new RowException("Line name '" + line.getLineName() + "' already exists");
+            }
+            if (!floor.tryTake(MAX_LINES_PER_FLOOR)) {
+                throw new RowException("Floor '" + floorName + "' already has "
+                        + MAX_LINES_PER_FLOOR + " lines. Maximum is " + MAX_LINES_PER_FLOOR + ".");
+            }
+            names.add(line.getLineName());
+            return line;
+        }
+
+        @Override
+        void write(List<Line> batch) {
+            SortedMap<Long, Integer> added = new TreeMap<>();
+            batch.forEach(line -> added.merge(line.getFloorId(), 1, Integer::sum));
+            List<Long> full = bulkRepository.addLineSlots(added, MAX_LINES_PER_FLOOR);
+            if (!full.isEmpty()) {
+                throw new ImportException(HttpStatus.CONFLICT,
+                    "Floor(s) " + full + " reached " + MAX_LINES_PER_FLOOR + " lines while the import was running");
+            }
+            bulkRepository.insertLines(batch);
+        }
+    }
+
+    private class MachineLoader extends Loader<Machine> {
+
+        private Map<String, SlotCounter> lines;
+        private Set<String> serials;
+
+        @Override
+        void preload() {
+            lines = bulkRepository.loadLineSlots();
+            serials = bulkRepository.loadMachineSerials();
+        }
+
+        @Override
+        Machine accept(Map<String, String> row) throws RowException {
+            Machine machine = new Machine();
+            machine.setMachineSerial(text(row, "machineSerial"));
+            machine.setModel(text(row, "model"));
+            machine.setType(enumValue(MachineType.class, row, "type"));
+            machine.setYearOfManufacturing(intValue(row, "yearOfManufacturing"));
+            machine.setManufacturingCompany(text(row, "manufacturingCompany"));
+            String lineName = text(row, "line");
+            SlotCounter line = lineName == null ? null : lines.get(lineName);
+            if (lineName != null && line == null) {
+                throw new RowException("Line not found with name: " + lineName);
+            }
+            if (line != null) {
+                Line parent = new Line();
+                parent.setId(line.id());
+                parent.setLineName(lineName);
+                machine.setLineMapping(parent);
+            }
+            validate(machine);
+            if (serials.contains(machine.getMachineSerial())) {
+                throw new RowException("Machine serial '" + machine.getMachineSerial() + "' already exists");
+            }
+            if (!line.tryTake(MAX_MACHINES_PER_LINE)) {
+                throw new RowException("Line '" + lineName + "' already has "
+                        + MAX_MACHINES_PER_LINE + " machines. Maximum is " + MAX_MACHINES_PER_LINE + ".");
+            }
+            serials.add(machine.getMachineSerial());
+            return machine;
+        }
+
+        @Override
+        void write(List<Machine> batch) {
+            SortedMap<Long, Integer> added = new TreeMap<>();
+            batch.forEach(machine -> added.merge(machine.getLineId(), 1, Integer::sum));
+            List<Long> full = bulkRepository.addMachineSlots(added, MAX_MACHINES_PER_LINE);
+            if (!full.isEmpty()) {
+                throw new ImportException(HttpStatus.CONFLICT,
+                    "Line(s) " + full + " reached " + MAX_MACHINES_PER_LINE + " machines while the import was running");
+            }
+            bulkRepository.insertMachines(batch);
+        }
+    }
+
+    // ==================== Field parsing ====================
+
+    private static String text(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, Map<String, String> row, String column)
+            throws RowException {
+        String value = text(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RowException("Invalid " + column + " '" + value + "', expected one of "
+                    + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static Integer intValue(Map<String, String> row, String column) throws RowException {
+        String value = text(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RowException("Invalid " + column + " '" + value + "', expected a whole number");
+        }
+    }
+
+    // ==================== Types ====================
+
+    private enum Format {
+        CSV, JSON;
+
+        static Format of(String contentType) {
+            MediaType type;
+            try {
+                type = contentType == null ? null : MediaType.parseMediaType(contentType);
+            } catch (InvalidMediaTypeException e) {
+                type = null;
+            }
+            if (type != null && type.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                return CSV;
+            }
+            if (type != null && (type.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || type.isCompatibleWith(MediaType.APPLICATION_NDJSON))) {
+                return JSON;
+            }
+            throw new ImportException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Send text/csv, application/json or application/x-ndjson");
+        }
+
+        RecordReader open(InputStream in, ObjectMapper mapper) throws IOException {
+            return this == CSV
+                ? new CsvRecordReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), CHUNK_SIZE))
+                : new JsonRecordReader(mapper, in);
+        }
+    }
+
+    private enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * Row-level validation failure: the row is skipped and reported, the import goes on
+     */
+    private static class RowException extends Exception {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static class Job {
+
+        private final String id;
+        private final PlantDataset dataset;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile State state = State.QUEUED;
+        private volatile long bytesTotal;
+        private volatile FileChannel channel;
+        private volatile long bytesRead;
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        Job(String id, PlantDataset dataset) {
+            this.id = id;
+            this.dataset = dataset;
+        }
+
+        void reject(long rowNumber, String reason, int maxErrors) {
+            rowsRejected.incrementAndGet();
+            if (errors.size() < maxErrors) {
+                errors.add("Row " + rowNumber + ": " + reason);
+            }
+        }
+
+        void finish(State finalState, String failure) {
+            message = failure;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        ImportProgress progress() {
+            long read = state == State.COMPLETED ? bytesTotal : position();
+            List<String> errorList;
+            synchronized (errors) {
+                errorList = List.copyOf(errors);
+            }
+            return new ImportProgress(id, dataset, state.name(), bytesTotal, read,
+                rowsRead.get(), rowsImported.get(), rowsRejected.get(), errorList, message, startedAt, finishedAt);
+        }
+
+        /**
+         * Bytes consumed by the parser so far (the last known offset once the file is closed)
+         */
+        private long position() {
+            FileChannel current = channel;
+            try {
+                if (current != null && current.isOpen()) {
+                    bytesRead = current.position();
+                }
+            } catch (IOException e) {
+                // Closed concurrently, keep the last offset
+            }
+            return bytesRead;
+        }
+    }
+}
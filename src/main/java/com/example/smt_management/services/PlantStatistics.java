@@ -0,0 +1,230 @@
+package com.example.smt_management.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.smt_management.dtos.PlantStats;
+import com.example.smt_management.enums.MachineType;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.ChildCount;
+import com.example.smt_management.repositories.FloorRepository;
+import com.example.smt_management.repositories.LineRepository;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.repositories.MachineRepository.TypeCount;
+import com.example.smt_management.services.PlantChangeEvent.BulkChange;
+import com.example.smt_management.services.PlantChangeEvent.FloorCreated;
+import com.example.smt_management.services.PlantChangeEvent.FloorDeleted;
+import com.example.smt_management.services.PlantChangeEvent.LineCreated;
+import com.example.smt_management.services.PlantChangeEvent.LineDeleted;
+import com.example.smt_management.services.PlantChangeEvent.LineMoved;
+import com.example.smt_management.services.PlantChangeEvent.MachineChanged;
+import com.example.smt_management.services.PlantChangeEvent.MachineCreated;
+import com.example.smt_management.services.PlantChangeEvent.MachineDeleted;
+
+/**
+ * In-memory plant totals and per-floor / per-line / per-type breakdowns for the dashboards.
+ * Reads never touch the database: the snapshot is loaded at startup, adjusted by
+ * {@link PlantChangeEvent}s once their transaction commits, and reconciled against
+ * the tables periodically to repair any drift (e.g. rows changed outside the services).
+ * A reload reads one database snapshot in its own transaction and replays the events that
+ * were applied while it ran, so a concurrent change is never overwritten by the reload;
+ * reloads are serialised and events are applied one at a time.
+ */
+@Component
+public class PlantStatistics {
+
+    private final AtomicReference<PlantStats> stats = new AtomicReference<>(PlantStats.EMPTY);
+    private final FloorRepository floorRepository;
+    private final LineRepository lineRepository;
+    private final MachineRepository machineRepository;
+    private final TransactionTemplate snapshotReads;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Object applyLock = new Object();
+    // Events applied since the running reload started; null when no reload runs (guarded by applyLock)
+    private List<PlantChangeEvent> appliedDuringReload;
+
+    public PlantStatistics(FloorRepository floorRepository, LineRepository lineRepository,
+            MachineRepository machineRepository, PlatformTransactionManager transactionManager) {
+        this.floorRepository = floorRepository;
+        this.lineRepository = lineRepository;
+        this.machineRepository = machineRepository;
+        // Own transaction even when called after another one committed (BulkChange listener),
+        // and one snapshot for all four queries
+        this.snapshotReads = new TransactionTemplate(transactionManager);
+        this.snapshotReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotReads.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotReads.setReadOnly(true);
+    }
+
+    /**
+     * Current snapshot (no query)
+     */
+    public PlantStats current() {
+        return stats.get();
+    }
+
+    /**
+     * Apply a committed change; bulk changes trigger a full reload
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlantChange(PlantChangeEvent event) {
+        if (event instanceof BulkChange) {
+            reconcile();
+            return;
+        }
+        synchronized (applyLock) {
+            stats.updateAndGet(current -> apply(current, event));
+            if (appliedDuringReload != null) {
+                appliedDuringReload.add(event);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the tables (four grouped queries)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${stats.reconcile-interval:PT10M}", initialDelayString = "${stats.reconcile-interval:PT10M}")
+    public void reconcile() {
+        reloadLock.lock();
+        try {
+            synchronized (applyLock) {
+                appliedDuringReload = new ArrayList<>();
+            }
+            PlantStats loaded;
+            try {
+                loaded = snapshotReads.execute(status -> load());
+            } catch (RuntimeException e) {
+                synchronized (applyLock) {
+                    appliedDuringReload = null;
+                }
+                throw e;
+            }
+            synchronized (applyLock) {
+                PlantStats fresh = loaded;
+                for (PlantChangeEvent event : appliedDuringReload) {
+                    fresh = apply(fresh, event);
+                }
+                appliedDuringReload = null;
+                PlantStats previous = stats.getAndSet(fresh);
+                if (previous.getReconciledAt() != null && drifted(previous, fresh)) {
+                    AppLog.warn("Plant statistics drifted from the database and were reconciled");
+                }
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // ==================== Internals ====================
+
+    private PlantStats load() {
+        Map<Long, Long> linesByFloor = toMap(floorRepository.countLinesPerFloor());
+        Map<Long, Long> machinesByLine = toMap(lineRepository.countMachinesPerLine());
+        Map<MachineType, Long> machinesByType = new EnumMap<>(MachineType.class);
+        for (TypeCount count : machineRepository.countPerType()) {
+            machinesByType.put(count.getType(), count.getCount());
+        }
+        return new PlantStats(
+            floorRepository.count(),
+            sum(linesByFloor),
+            sum(machinesByLine),
+            Map.copyOf(linesByFloor),
+            Map.copyOf(machinesByLine),
+            Map.copyOf(machinesByType),
+            Instant.now());
+    }
+
+    private static PlantStats apply(PlantStats current, PlantChangeEvent event) {
+        long floors = current.getTotalFloors();
+        long lines = current.getTotalLines();
+        long machines = current.getTotalMachines();
+        Map<Long, Long> linesByFloor = new HashMap<>(current.getLinesByFloor());
+        Map<Long, Long> machinesByLine = new HashMap<>(current.getMachinesByLine());
+        Map<MachineType, Long> machinesByType = new HashMap<>(current.getMachinesByType());
+
+        switch (event) {
+            case FloorCreated e -> floors++;
+            case FloorDeleted e -> {
+                floors--;
+                linesByFloor.remove(e.floorId());
+            }
+            case LineCreated e -> {
+                lines++;
+                adjust(linesByFloor, e.floorId(), 1);
+            }
+            case LineDeleted e -> {
+                lines--;
+                adjust(linesByFloor, e.floorId(), -1);
+                machinesByLine.remove(e.lineId());
+            }
+            case LineMoved e -> {
+                adjust(linesByFloor, e.fromFloorId(), -1);
+                adjust(linesByFloor, e.toFloorId(), 1);
+            }
+            case MachineCreated e -> {
+                machines++;
+                adjust(machinesByLine, e.lineId(), 1);
+                adjust(machinesByType, e.type(), 1);
+            }
+            case MachineDeleted e -> {
+                machines--;
+                adjust(machinesByLine, e.lineId(), -1);
+                adjust(machinesByType, e.type(), -1);
+            }
+            case MachineChanged e -> {
+                adjust(machinesByLine, e.fromLineId(), -1);
+                adjust(machinesByLine, e.toLineId(), 1);
+                adjust(machinesByType, e.fromType(), -1);
+                adjust(machinesByType, e.toType(), 1);
+            }
+            case BulkChange e -> {
+                return current;
+            }
+        }
+
+        return new PlantStats(floors, lines, machines,
+            Map.copyOf(linesByFloor), Map.copyOf(machinesByLine), Map.copyOf(machinesByType),
+            current.getReconciledAt());
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        if (key == null) {
+            return;
+        }
+        counts.merge(key, delta, Long::sum);
+        counts.remove(key, 0L);
+    }
+
+    private static boolean drifted(PlantStats cached, PlantStats fresh) {
+        return cached.getTotalFloors() != fresh.getTotalFloors()
+            || !cached.getLinesByFloor().equals(fresh.getLinesByFloor())
+            || !cached.getMachinesByLine().equals(fresh.getMachinesByLine())
+            || !cached.getMachinesByType().equals(fresh.getMachinesByType());
+    }
+
+    private static Map<Long, Long> toMap(Iterable<ChildCount> counts) {
+        Map<Long, Long> map = new HashMap<>();
+        counts.forEach(count -> map.put(count.getParentId(), count.getCount()));
+        return map;
+    }
+
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.smt_management.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.smt_management.exceptions.ImageUploadException;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.MachineRepository;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.StoredImage;
+
+/**
+ * Resumable machine image uploads (a small subset of the tus protocol).
+ * The client creates an upload with its total length and type, then PATCHes
+ * chunks at the current offset. Whatever reached the disk before a connection
+ * drop is kept, so a tablet on flaky Wi-Fi resumes from the last offset
+ * instead of starting over. Chunks go straight from the request stream to a
+ * part file through a fixed-size buffer, so memory use does not depend on
+ * the image size.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f\\-]{36}");
+
+    private final ImageUploadPolicy uploadPolicy;
+    private final ImageStore imageStore;
+    private final MachineImageService machineImageService;
+    private final ImageBlobService imageBlobService;
+    private final MachineRepository machineRepository;
+    private final Path uploadDir;
+    private final Duration expiry;
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public ResumableUploadService(
+            ImageUploadPolicy uploadPolicy,
+            ImageStore imageStore,
+            MachineImageService machineImageService,
+            ImageBlobService imageBlobService,
+            MachineRepository machineRepository,
+            @Value("${image.upload.dir:data/uploads}") String uploadDir,
+            @Value("${image.upload.expiry:PT24H}") Duration expiry) {
+        this.uploadPolicy = uploadPolicy;
+        this.imageStore = imageStore;
+        this.machineImageService = machineImageService;
+        this.imageBlobService = imageBlobService;
+        this.machineRepository = machineRepository;
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.expiry = expiry;
+    }
+
+    /**
+     * Start an upload for an existing machine. Limits are enforced here, before any content is sent.
+     */
+    public UploadSession create(String machineSerial, long length, String contentType) throws IOException {
+        if (!machineRepository.existsById(machineSerial)) {
+            throw new ImageUploadException(HttpStatus.NOT_FOUND, "Machine not found with serial: " + machineSerial);
+        }
+        if (length <= 0) {
+            throw new ImageUploadException(HttpStatus.BAD_REQUEST, "Upload-Length header is required");
+        }
+        String type = uploadPolicy.checkDeclared(contentType, length);
+
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(uploadDir);
+        Files.createFile(partFile(id));
+
+        Properties meta = new Properties();
+        meta.setProperty("machineSerial", machineSerial);
+        meta.setProperty("contentType", type);
+        meta.setProperty("length", Long.toString(length));
+        try (Writer writer = Files.newBufferedWriter(metaFile(id))) {
+            meta.store(writer, null);
+        }
+        return new UploadSession(id, machineSerial, type, length, 0, null);
+    }
+
+    /**
+     * Current state of an upload (offset is whatever has reached the disk)
+     */
+    public Optional<UploadSession> find(String id) throws IOException {
+        if (!ID_PATTERN.matcher(id).matches() || !Files.exists(metaFile(id))) {
+            return Optional.empty();
+        }
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile(id))) {
+            meta.load(reader);
+        }
+        return Optional.of(new UploadSession(
+            id,
+            meta.getProperty("machineSerial"),
+            meta.getProperty("contentType"),
+            Long.parseLong(meta.getProperty("length")),
+            Files.size(partFile(id)),
+            null));
+    }
+
+    /**
+     * Append a chunk at the given offset. Completes the upload once all bytes have arrived.
+     * @param contentLength declared chunk length, or -1 if the request is chunked
+     */
+    public UploadSession append(String id, long offset, InputStream body, long contentLength) throws IOException {
+        ReentrantLock lock = locks.computeIfAbsent(id, key -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new ImageUploadException(HttpStatus.CONFLICT, "Another request is writing to this upload");
+        }
+        try {
+            UploadSession session = find(id)
+                .orElseThrow(() -> new ImageUploadException(HttpStatus.NOT_FOUND, "Upload not found: " + id));
+            if (offset != session.offset()) {
+                throw new ImageUploadException(HttpStatus.CONFLICT,
+                    "Upload-Offset " + offset + " does not match current offset " + session.offset());
+            }
+            long remaining = session.length() - session.offset();
+            if (contentLength > remaining) {
+                throw new ImageUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Chunk of " + contentLength + " bytes exceeds the " + remaining + " bytes left in this upload");
+            }
+
+            if (session.offset() == 0) {
+                // First chunk: check magic bytes before anything is written
+                body = uploadPolicy.checkContent(body, session.contentType());
+            }
+            long written = copy(body, partFile(id), remaining);
+            UploadSession updated = session.withOffset(session.offset() + written);
+
+            return updated.offset() == updated.length() ? complete(updated) : updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancel an upload and remove its data
+     */
+    public void cancel(String id) throws IOException {
+        if (ID_PATTERN.matcher(id).matches()) {
+            Files.deleteIfExists(partFile(id));
+            Files.deleteIfExists(metaFile(id));
+            locks.remove(id);
+        }
+    }
+
+    /**
+     * Remove uploads that have not been touched within the expiry window
+     */
+    @Scheduled(fixedDelayString = "${image.upload.cleanup-interval:PT1H}")
+    public void purgeExpired() {
+        if (!Files.isDirectory(uploadDir)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(expiry);
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(uploadDir, "*.part")) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(cutoff)) {
+                    String name = part.getFileName().toString();
+                    cancel(name.substring(0, name.length() - ".part".length()));
+                }
+            }
+        } catch (IOException e) {
+            AppLog.error("Failed to purge expired image uploads", e);
+        }
+    }
+
+    /**
+     * Move the finished part file into the image store and attach it to the machine
+     */
+    private UploadSession complete(UploadSession session) throws IOException {
+        StoredImage stored;
+        try (InputStream in = Files.newInputStream(partFile(session.id()))) {
+            // Registered before publishing, so the collector cannot remove it before assignImage retains it
+            stored = imageStore.store(in, imageBlobService::register);
+        }
+        machineImageService.assignImage(session.machineSerial(), stored, session.contentType());
+        cancel(session.id());
+        return new UploadSession(session.id(), session.machineSerial(), session.contentType(),
+            session.length(), session.offset(), stored.key());
+    }
+
+    /**
+     * Append at most maxBytes from the body to the part file using a fixed-size buffer.
+     * Bytes are on disk as soon as they are written, so an interrupted request still advances the offset.
+     */
+    private long copy(InputStream body, Path part, long maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        long written = 0;
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             ReadableByteChannel in = Channels.newChannel(body)) {
+            while (written < maxBytes) {
+                buffer.clear();
+                buffer.limit((int) Math.min(CHUNK_SIZE, maxBytes - written));
+                int read = in.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                written += read;
+            }
+        }
+        return written;
+    }
+
+    private Path partFile(String id) {
+        return uploadDir.resolve(id + ".part");
+    }
+
+    private Path metaFile(String id) {
+        return uploadDir.resolve(id + ".properties");
+    }
+
+    /**
+     * State of a resumable upload; imageHash is set once the upload completed
+     */
+    public record UploadSession(String id, String machineSerial, String contentType,
+            long length, long offset, String imageHash) {
+
+        UploadSession withOffset(long newOffset) {
+            return new UploadSession(id, machineSerial, contentType, length, newOffset, imageHash);
+        }
+
+        public boolean isComplete() {
+            return imageHash != null;
+        }
+    }
+}
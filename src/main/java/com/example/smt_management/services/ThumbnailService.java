@@ -0,0 +1,193 @@
+package com.example.smt_management.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.storage.ImageStore;
+import com.example.smt_management.storage.ImageVariant;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background generation of downscaled image variants.
+ * Jobs run on a small, bounded, low-priority pool so upload bursts never compete
+ * with request threads; when the queue is full the job is dropped and the
+ * variant is requested again the next time it is served.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /** Refuse to decode anything larger than this (decompression bomb guard) */
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ThumbnailService(
+            ImageStore imageStore,
+            @Value("${image.thumbnail.threads:2}") int threads,
+            @Value("${image.thumbnail.queue-capacity:200}") int queueCapacity) {
+        this.imageStore = imageStore;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue variant generation for an original image (duplicate requests are ignored)
+     */
+    public void queue(String hash) {
+        if (!pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(hash);
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            AppLog.warn("Thumbnail queue full, skipping variants for image " + hash);
+        }
+    }
+
+    /**
+     * Decode the original once and write every missing derived variant
+     */
+    void generateVariants(String hash) {
+        try {
+            Optional<Resource> original = imageStore.load(hash);
+            if (original.isEmpty()) {
+                return;
+            }
+
+            BufferedImage source = null;
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (!variant.isDerived() || imageStore.exists(variant.key(hash))) {
+                    continue;
+                }
+                if (source == null) {
+                    source = decode(original.get());
+                    if (source == null) {
+                        AppLog.warn("Image " + hash + " is not a decodable image, no variants generated");
+                        return;
+                    }
+                }
+                imageStore.store(variant.key(hash), encodeJpeg(scale(source, variant.getMaxDimension())));
+            }
+        } catch (Exception e) {
+            AppLog.error("Failed to generate variants for image " + hash, e);
+        }
+    }
+
+    /**
+     * Decode pixels only; metadata (EXIF, GPS, ICC comments) is dropped on re-encode
+     */
+    private BufferedImage decode(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new IOException("Image too large to thumbnail: " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale down to fit within maxDimension (never upscale), flattening onto white
+     */
+    private BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
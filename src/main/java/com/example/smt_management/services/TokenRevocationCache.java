@@ -0,0 +1,103 @@
+package com.example.smt_management.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.smt_management.dtos.TokenClaims;
+import com.example.smt_management.entities.User;
+import com.example.smt_management.repositories.UserRepository;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Short-lived per-user copy of users.token_version and users.active, so a token whose
+ * account was deactivated or revoked stops working within jwt.revocation-ttl while a
+ * steady stream of requests costs one small query per user per TTL.
+ * A TTL of zero turns the check off: tokens are then trusted until they expire.
+ * Every token is issued against a users row (UserAccountService records one at login,
+ * also for users known only to the external login API), so a token whose row is missing
+ * belongs to a deleted account and is revoked; nothing the token claims can skip the check.
+ * Registered as the JPA listener of User, so local changes are seen at once.
+ * Changing or deleting a user also forgets their verified credentials, so the
+ * login fallback cannot sign them back in while the external API is unavailable.
+ */
+@Component
+public class TokenRevocationCache {
+
+    private final UserRepository userRepository;
+    private final VerifiedCredentialCache credentialCache;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CachedState> states = new ConcurrentHashMap<>();
+
+    public TokenRevocationCache(
+            UserRepository userRepository,
+            VerifiedCredentialCache credentialCache,
+            @Value("${jwt.revocation-ttl:PT30S}") Duration ttl,
+            @Value("${jwt.revocation-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.credentialCache = credentialCache;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Whether the token's account has been deleted or deactivated or its version bumped since issue
+     */
+    public boolean isRevoked(TokenClaims claims) {
+        if (ttlNanos <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        CachedState state = states.get(claims.getUsername());
+        if (state == null || now - state.loadedAt() > ttlNanos) {
+            state = load(claims.getUsername(), now);
+        }
+        return !state.active() || claims.getTokenVersion() != state.tokenVersion();
+    }
+
+    /**
+     * Drop the cached state (and any verified credentials) now and again after the current
+     * transaction completes, so a concurrent reader cannot re-cache the pre-commit row
+     */
+    public void evict(String username) {
+        states.remove(username);
+        credentialCache.evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    states.remove(username);
+                }
+            });
+        }
+    }
+
+    private CachedState load(String username, long now) {
+        CachedState state = userRepository.findTokenState(username)
+            .map(row -> new CachedState(row.getTokenVersion(), Boolean.TRUE.equals(row.getActive()), now))
+            // No row: the account was deleted
+            .orElseGet(() -> new CachedState(0, false, now));
+        if (states.size() >= maxEntries) {
+            states.clear();
+        }
+        states.put(username, state);
+        return state;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        evict(user.getUsername());
+    }
+
+    private record CachedState(long tokenVersion, boolean active, long loadedAt) {
+    }
+}
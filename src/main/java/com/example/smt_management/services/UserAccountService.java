@@ -0,0 +1,77 @@
+package com.example.smt_management.services;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.smt_management.entities.ERole;
+import com.example.smt_management.entities.Role;
+import com.example.smt_management.entities.User;
+import com.example.smt_management.logging.AppLog;
+import com.example.smt_management.repositories.RoleRepository;
+import com.example.smt_management.repositories.UserRepository;
+
+/**
+ * Keeps a users row behind every issued token. Users known only to the external login API
+ * get a shadow row at their first login, so the token revocation check always has a row to
+ * compare against and deleting or deactivating the row revokes their tokens too.
+ */
+@Service
+@Transactional
+public class UserAccountService {
+
+    /** Password of shadow rows: not an encoded password, so no local check can ever match it */
+    static final String EXTERNAL_PASSWORD = "!external";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+
+    public UserAccountService(UserRepository userRepository, RoleRepository roleRepository) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Record a successful login: create the user's row if needed and bring its roles in line
+     * with the authorities just granted (a change bumps token_version, revoking older tokens)
+     * @return the row the token is issued against
+     * @throws DisabledException if the account has been deactivated
+     */
+    public User recordLogin(String username, Collection<? extends GrantedAuthority> authorities) {
+        Set<Role> roles = rolesOf(authorities);
+        User user = userRepository.findById(username).orElse(null);
+        if (user == null) {
+            user = new User();
+            user.setUsername(username);
+            user.setPassword(EXTERNAL_PASSWORD);
+            user.setRoles(roles);
+            return userRepository.save(user);
+        }
+        if (!Boolean.TRUE.equals(user.getActive())) {
+            throw new DisabledException("Account " + username + " is deactivated");
+        }
+        user.setRoles(roles);
+        return user;
+    }
+
+    private Set<Role> rolesOf(Collection<? extends GrantedAuthority> authorities) {
+        Set<Role> roles = new HashSet<>();
+        for (GrantedAuthority authority : authorities) {
+            ERole name;
+            try {
+                name = ERole.valueOf(authority.getAuthority());
+            } catch (IllegalArgumentException e) {
+                AppLog.warn("Ignoring unknown role " + authority.getAuthority() + " granted at login");
+                continue;
+            }
+            roles.add(roleRepository.findByName(name)
+                    .orElseThrow(() -> new IllegalStateException("Role " + name + " is not initialised")));
+        }
+        return roles;
+    }
+}
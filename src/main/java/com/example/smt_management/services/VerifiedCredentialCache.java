@@ -0,0 +1,141 @@
+package com.example.smt_management.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Opt-in memory of logins the external API accepted: per username, a BCrypt hash of the
+ * password (never the password itself) and the role the API returned.
+ * For ttl after a successful check, the same credentials are answered locally; for
+ * fallback-ttl they can still stand in when the API cannot be asked (circuit open,
+ * timeout, overload). A refused login forgets the user, so a changed or revoked password
+ * stops working at the next successful round-trip.
+ * BCrypt only looks at the first 72 bytes, so longer passwords are never cached.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final int BCRYPT_MAX_BYTES = 72;
+
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration fallbackTtl;
+    private final int maxEntries;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacksServed = new AtomicLong();
+    private final AtomicLong fallbacksUnavailable = new AtomicLong();
+
+    public VerifiedCredentialCache(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${external.api.credential-cache.enabled:false}") boolean enabled,
+            @Value("${external.api.credential-cache.ttl:PT1H}") Duration ttl,
+            @Value("${external.api.credential-cache.fallback-ttl:PT12H}") Duration fallbackTtl,
+            @Value("${external.api.credential-cache.max-entries:5000}") int maxEntries) {
+        this.passwordEncoder = passwordEncoder;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.fallbackTtl = fallbackTtl.compareTo(ttl) < 0 ? ttl : fallbackTtl;
+        this.maxEntries = maxEntries;
+
+        FunctionCounter.builder("external.auth.credential-cache.requests", hits, AtomicLong::get).tag("result", "hit")
+                .description("Logins answered from verified credentials").register(meterRegistry);
+        FunctionCounter.builder("external.auth.credential-cache.requests", misses, AtomicLong::get).tag("result", "miss")
+                .description("Logins that had to be checked with the login API").register(meterRegistry);
+        FunctionCounter.builder("external.auth.credential-cache.fallbacks", fallbacksServed, AtomicLong::get)
+                .tag("result", "served")
+                .description("Logins attempted while the login API was unavailable").register(meterRegistry);
+        FunctionCounter.builder("external.auth.credential-cache.fallbacks", fallbacksUnavailable, AtomicLong::get)
+                .tag("result", "unavailable")
+                .description("Logins attempted while the login API was unavailable").register(meterRegistry);
+        Gauge.builder("external.auth.credential-cache.entries", verified, Map::size)
+                .description("Users with verified credentials held").register(meterRegistry);
+    }
+
+    /**
+     * Role for credentials the API accepted within ttl
+     */
+    public Optional<String> lookup(String username, String password) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<String> role = match(username, password, ttl);
+        (role.isPresent() ? hits : misses).incrementAndGet();
+        return role;
+    }
+
+    /**
+     * Role for credentials the API accepted within fallback-ttl, for use while the API
+     * cannot be asked
+     */
+    public Optional<String> fallback(String username, String password) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<String> role = match(username, password, fallbackTtl);
+        (role.isPresent() ? fallbacksServed : fallbacksUnavailable).incrementAndGet();
+        return role;
+    }
+
+    /**
+     * Remember the API's answer: a role stores the credentials, null (refused) forgets the user
+     */
+    public void record(String username, String password, String role) {
+        if (!enabled) {
+            return;
+        }
+        if (role == null || password.getBytes(StandardCharsets.UTF_8).length > BCRYPT_MAX_BYTES) {
+            verified.remove(username);
+            return;
+        }
+        Instant now = Instant.now();
+        if (verified.size() >= maxEntries && !verified.containsKey(username)) {
+            verified.values().removeIf(entry -> entry.isOlderThan(fallbackTtl, now));
+            if (verified.size() >= maxEntries) {
+                verified.clear();
+            }
+        }
+        verified.put(username, new Verified(passwordEncoder.encode(password), role, now));
+    }
+
+    /**
+     * Forget the user's verified credentials, e.g. when the account is deleted or its tokens revoked
+     */
+    public void evict(String username) {
+        verified.remove(username);
+    }
+
+    private Optional<String> match(String username, String password, Duration maxAge) {
+        Verified entry = verified.get(username);
+        if (entry == null || entry.isOlderThan(maxAge, Instant.now())
+                || password.getBytes(StandardCharsets.UTF_8).length > BCRYPT_MAX_BYTES
+                || !passwordEncoder.matches(password, entry.passwordHash())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.role());
+    }
+
+    private record Verified(String passwordHash, String role, Instant verifiedAt) {
+
+        boolean isOlderThan(Duration maxAge, Instant now) {
+            return verifiedAt.plus(maxAge).isBefore(now);
+        }
+    }
+}
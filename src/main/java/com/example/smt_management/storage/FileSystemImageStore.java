@@ -0,0 +1,97 @@
+package com.example.smt_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Image store backed by a local directory.
+ * Blobs are sharded as root/ab/cd/abcd... to keep directories small.
+ */
+@Component
+@ConditionalOnProperty(name = "image.store.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemImageStore implements ImageStore {
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public FileSystemImageStore(@Value("${image.store.filesystem.root:data/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+    }
+
+    @Override
+    public StoredImage store(InputStream content, Consumer<StoredImage> beforePublish) throws IOException {
+        ImageKeys.Staged staged = ImageKeys.stage(content, tmpDir);
+        try {
+            StoredImage stored = new StoredImage(staged.key(), staged.size());
+            beforePublish.accept(stored);
+            Path target = resolve(staged.key());
+            if (!Files.exists(target)) {
+                moveIntoPlace(staged.file(), target);
+            }
+            // Otherwise the same content is already stored
+            return stored;
+        } finally {
+            Files.deleteIfExists(staged.file());
+        }
+    }
+
+    @Override
+    public void store(String key, byte[] content) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "variant-", ".part");
+        try {
+            Files.write(tmp, content);
+            moveIntoPlace(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public Optional<Resource> load(String key) {
+        Path path = resolve(key);
+        return Files.exists(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    /**
+     * Move a fully written temp file to its final location so readers never see partial blobs
+     */
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path resolve(String key) {
+        ImageKeys.validate(key);
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
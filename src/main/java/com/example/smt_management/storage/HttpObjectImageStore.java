@@ -0,0 +1,179 @@
+package com.example.smt_management.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Image store backed by an S3-style object store reachable over plain HTTP
+ * (PUT/GET/HEAD/DELETE on {base-url}/{key}), e.g. a MinIO bucket or storage gateway.
+ * Uploads are staged to a local temp file first, since the key is the content hash.
+ */
+@Component
+@ConditionalOnProperty(name = "image.store.type", havingValue = "http")
+public class HttpObjectImageStore implements ImageStore {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String token;
+    private final Path tmpDir;
+
+    public HttpObjectImageStore(
+            @Value("${image.store.http.base-url}") String baseUrl,
+            @Value("${image.store.http.token:}") String token,
+            @Value("${image.store.http.staging-dir:${java.io.tmpdir}/smt-image-staging}") String stagingDir) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.token = token;
+        this.tmpDir = Paths.get(stagingDir);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public StoredImage store(InputStream content, Consumer<StoredImage> beforePublish) throws IOException {
+        ImageKeys.Staged staged = ImageKeys.stage(content, tmpDir);
+        try {
+            StoredImage stored = new StoredImage(staged.key(), staged.size());
+            beforePublish.accept(stored);
+            if (!exists(staged.key())) {
+                HttpRequest request = request(staged.key())
+                        .PUT(HttpRequest.BodyPublishers.ofFile(staged.file()))
+                        .build();
+                HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("Object store rejected upload of " + staged.key() + ": HTTP " + response.statusCode());
+                }
+            }
+            return stored;
+        } finally {
+            Files.deleteIfExists(staged.file());
+        }
+    }
+
+    @Override
+    public void store(String key, byte[] content) throws IOException {
+        HttpRequest request = request(key)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(content))
+                .build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Object store rejected upload of " + key + ": HTTP " + response.statusCode());
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public Optional<Resource> load(String key) {
+        return head(key).<Resource>map(length -> new ObjectResource(key, length));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(request(key).DELETE().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("Object store failed to delete " + key + ": HTTP " + response.statusCode());
+        }
+    }
+
+    /**
+     * HEAD the object and return its content length, or empty if it does not exist
+     */
+    private Optional<Long> head(String key) {
+        try {
+            HttpRequest request = request(key).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                return Optional.empty();
+            }
+            return Optional.of(response.headers().firstValueAsLong("Content-Length").orElse(-1));
+        } catch (IOException e) {
+            throw new IllegalStateException("Object store unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    private HttpRequest.Builder request(String key) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + ImageKeys.validate(key)))
+                .timeout(TIMEOUT);
+        if (StringUtils.hasText(token)) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling object store", e);
+        }
+    }
+
+    /**
+     * Resource that streams the object body on demand
+     */
+    private class ObjectResource extends AbstractResource {
+
+        private final String key;
+        private final long length;
+
+        ObjectResource(String key, long length) {
+            this.key = key;
+            this.length = length;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Object store blob [" + key + "]";
+        }
+
+        @Override
+        public String getFilename() {
+            return key;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return length >= 0 ? length : super.contentLength();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            HttpResponse<InputStream> response = send(request(key).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new FileNotFoundException(getDescription() + " returned HTTP " + response.statusCode());
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.smt_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Key helpers shared by the image store backends
+ */
+final class ImageKeys {
+
+    /** SHA-256 hex, optionally followed by a variant suffix (e.g. "-thumb") */
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(-[a-z0-9]+)?");
+
+    private ImageKeys() {
+    }
+
+    /**
+     * Validate a key so it can never escape the store (keys end up in paths and URLs)
+     */
+    static String validate(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return key;
+    }
+
+    /**
+     * Copy content to a temp file in the given directory while hashing it
+     */
+    static Staged stage(InputStream content, Path tmpDir) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+            long size = content.transferTo(out);
+            return new Staged(tmp, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Content written to a temp file, with its hash and size
+     */
+    record Staged(Path file, String key, long size) {
+    }
+}
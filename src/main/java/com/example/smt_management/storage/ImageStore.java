@@ -0,0 +1,51 @@
+package com.example.smt_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Content-addressed blob store for machine images.
+ * Originals are keyed by the SHA-256 of their bytes, so identical uploads are stored once.
+ */
+public interface ImageStore {
+
+    /**
+     * Stream content into the store and return its SHA-256 key.
+     * Content that is already present is not written again.
+     */
+    default StoredImage store(InputStream content) throws IOException {
+        return store(content, stored -> { });
+    }
+
+    /**
+     * Like store(InputStream), but hand the key to beforePublish once the content is staged,
+     * before checking whether it is already present and publishing it. Registering the blob
+     * there waits out a garbage collector that is deleting the same blob, so the presence
+     * check never trusts a file that is about to disappear.
+     */
+    StoredImage store(InputStream content, Consumer<StoredImage> beforePublish) throws IOException;
+
+    /**
+     * Store a derived blob (e.g. a thumbnail) under an explicit key
+     */
+    void store(String key, byte[] content) throws IOException;
+
+    /**
+     * Check if a blob exists for the given key
+     */
+    boolean exists(String key);
+
+    /**
+     * Load a blob as a streamable resource, or empty if it does not exist
+     */
+    Optional<Resource> load(String key);
+
+    /**
+     * Delete a blob (no-op if it does not exist)
+     */
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,49 @@
+package com.example.smt_management.storage;
+
+import java.util.Locale;
+
+/**
+ * Renditions of a machine image. Derived variants are stored next to the
+ * original under "{hash}-{variant}" and are always JPEG.
+ */
+public enum ImageVariant {
+    ORIGINAL(0),
+    THUMB(100),     // list page preview (rendered at 50px, 2x for HiDPI)
+    PREVIEW(1024);  // image modal
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isDerived() {
+        return this != ORIGINAL;
+    }
+
+    /**
+     * Store key of this variant for an original image hash
+     */
+    public String key(String hash) {
+        return isDerived() ? hash + "-" + pathName() : hash;
+    }
+
+    /**
+     * Name used in URLs and keys
+     */
+    public String pathName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parse a variant from its URL name
+     * @throws IllegalArgumentException if unknown
+     */
+    public static ImageVariant fromPath(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.smt_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.example.smt_management.logging.AppLog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * LRU cache of hot image blobs held in direct ByteBuffers, outside the Java heap,
+ * so the same photos requested by every operator neither hit the store nor fill old-gen.
+ * Keys are content hashes, so entries never go stale; they only leave on eviction
+ * or when the blob is deleted. The total size is bounded by image.cache.max-bytes
+ * (make sure -XX:MaxDirectMemorySize leaves room for it).
+ */
+@Component
+public class OffHeapImageCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    /** Access-ordered, guarded by this */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OffHeapImageCache(
+            @Value("${image.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${image.cache.max-entry-bytes:1048576}") long maxEntryBytes,
+            MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+
+        FunctionCounter.builder("image.cache.requests", hits, AtomicLong::get).tag("result", "hit")
+                .description("Image cache lookups").register(meterRegistry);
+        FunctionCounter.builder("image.cache.requests", misses, AtomicLong::get).tag("result", "miss")
+                .description("Image cache lookups").register(meterRegistry);
+        FunctionCounter.builder("image.cache.evictions", evictions, AtomicLong::get)
+                .description("Images evicted to stay within the byte budget").register(meterRegistry);
+        Gauge.builder("image.cache.size", this, OffHeapImageCache::usedBytes).baseUnit("bytes")
+                .description("Off-heap bytes held by the image cache").register(meterRegistry);
+        Gauge.builder("image.cache.entries", this, OffHeapImageCache::entryCount)
+                .description("Images held by the image cache").register(meterRegistry);
+    }
+
+    /**
+     * Cached resource for the key, loading it through the loader on a miss.
+     * Blobs larger than image.cache.max-entry-bytes (or of unknown size) bypass the cache.
+     */
+    public Optional<Resource> load(String key, Function<String, Optional<Resource>> loader) {
+        if (maxBytes <= 0) {
+            return loader.apply(key);
+        }
+        Entry cached = get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(new ByteBufferResource(key, cached));
+        }
+        misses.incrementAndGet();
+
+        Optional<Resource> loaded = loader.apply(key);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        try {
+            Resource resource = loaded.get();
+            long size = resource.contentLength();
+            if (size < 0 || size > maxEntryBytes) {
+                return loaded;
+            }
+            Entry entry = new Entry(read(resource, (int) size), lastModified(resource));
+            put(key, entry);
+            return Optional.of(new ByteBufferResource(key, entry));
+        } catch (IOException e) {
+            AppLog.warn("Could not cache image " + key + ": " + e.getMessage());
+            return loaded;
+        }
+    }
+
+    /**
+     * Drop a blob, e.g. after it was deleted from the store
+     */
+    public synchronized void evict(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.size();
+        }
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    private synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        usedBytes += entry.size() - (previous != null ? previous.size() : 0);
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (victim.getKey().equals(key)) {
+                continue;
+            }
+            usedBytes -= victim.getValue().size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Copy the blob into a direct buffer without an intermediate heap array
+     */
+    private static ByteBuffer read(Resource resource, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        try (ReadableByteChannel in = Channels.newChannel(resource.getInputStream())) {
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                // keep reading
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Blob shorter than its declared " + size + " bytes");
+        }
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private record Entry(ByteBuffer buffer, long lastModified) {
+
+        int size() {
+            return buffer.capacity();
+        }
+    }
+
+    /**
+     * Read-only view of a cached blob. Each resource gets its own buffer position,
+     * so concurrent responses can stream the same entry.
+     */
+    public static final class ByteBufferResource extends AbstractResource {
+
+        private final String key;
+        private final Entry entry;
+
+        private ByteBufferResource(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        /**
+         * A fresh view over the cached bytes
+         */
+        public ByteBuffer buffer() {
+            return entry.buffer().duplicate();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer buffer = buffer();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, buffer.remaining());
+                    buffer.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return buffer.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() {
+            return entry.size();
+        }
+
+        @Override
+        public long lastModified() {
+            return entry.lastModified();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached image [" + key + "]";
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.smt_management.storage;
+
+/**
+ * Result of storing a blob: its content hash and size in bytes
+ */
+public record StoredImage(String key, long size) {
+}
@@ -0,0 +1,92 @@
+package com.example.smt_management.util;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker for calls to a remote dependency.
+ * CLOSED lets every call through; failureThreshold failures in a row open it. OPEN rejects
+ * calls without trying them until openDuration has passed, then HALF_OPEN lets up to
+ * halfOpenProbes trial calls through: one success closes the circuit, one failure opens it
+ * for another openDuration.
+ *
+ * Callers ask tryAcquire() before the call and report the outcome with onSuccess() or
+ * onFailure() only when it was granted. Outcomes that say nothing about the dependency's
+ * health (e.g. a rejected password) count as success.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int halfOpenProbes) {
+        if (failureThreshold < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Failure threshold and half-open probes must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Permission for one call: always while closed, never while open, and for up to
+     * halfOpenProbes concurrent trial calls once the open period is over
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probesInFlight = 0;
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probesInFlight = 0;
+        }
+    }
+
+    /**
+     * Current state; an open circuit whose open period is over still reports OPEN until
+     * the next call moves it to HALF_OPEN
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.smt_management.util;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps concurrent calls to a dependency with a fair (first come, first served) semaphore
+ * and a bounded wait queue. A caller is turned away at once when maxQueued callers are
+ * already waiting, and after maxWait if no permit frees up, so overload shows up as a fast
+ * refusal instead of a pile of blocked threads.
+ */
+public class ConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueued, Duration maxWait) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Need at least one permit and a non-negative queue");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Take a permit, waiting in line if none is free
+     * @return false if the queue is full or no permit freed up within maxWait;
+     *         call release() after the guarded call only when true
+     */
+    public boolean tryAcquire() {
+        try {
+            // The timed form honours fairness; the untimed tryAcquire() would barge past the queue
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            if (waiting.incrementAndGet() > maxQueued) {
+                waiting.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.smt_management.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 CSV reader: the first record is the header, every following
+ * record is returned keyed by header name. Quoted fields may contain commas,
+ * doubled quotes and line breaks. Only the current record is held in memory.
+ */
+public class CsvRecordReader implements RecordReader {
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private final StringBuilder field = new StringBuilder();
+    private long recordNumber;
+
+    public CsvRecordReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IOException("CSV input is empty (a header row is required)");
+        }
+        if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) {
+            names.set(0, names.get(0).substring(1));
+        }
+        this.header = names.stream().map(String::trim).toList();
+    }
+
+    public List<String> header() {
+        return header;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        recordNumber++;
+        if (values.size() > header.size()) {
+            throw new IOException("Row " + recordNumber + " has " + values.size()
+                    + " fields but the header has " + header.size());
+        }
+        Map<String, String> record = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), i < values.size() ? values.get(i) : null);
+        }
+        return record;
+    }
+
+    /**
+     * Read one physical record (may span several lines when quoted), null at end of input
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field after row " + recordNumber);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                values.add(field.toString());
+                return values;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
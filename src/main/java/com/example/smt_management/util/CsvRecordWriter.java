@@ -0,0 +1,58 @@
+package com.example.smt_management.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV writer: a header row first, then one line per record. Fields containing
+ * commas, quotes or line breaks are quoted; nulls are written as empty fields.
+ */
+public class CsvRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+
+    public CsvRecordWriter(Writer writer, List<String> header) throws IOException {
+        this.writer = writer;
+        write(header);
+    }
+
+    @Override
+    public void write(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
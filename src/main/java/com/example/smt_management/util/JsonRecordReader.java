@@ -0,0 +1,60 @@
+package com.example.smt_management.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming JSON reader for either one top-level array of objects or
+ * newline-delimited objects (NDJSON). Each object is materialized on its own
+ * as it is reached, so memory does not grow with the input size.
+ */
+public class JsonRecordReader implements RecordReader {
+
+    private final JsonParser parser;
+    private JsonToken pending;
+    private long recordNumber;
+
+    public JsonRecordReader(ObjectMapper mapper, InputStream in) throws IOException {
+        this.parser = mapper.getFactory().createParser(in);
+        JsonToken first = parser.nextToken();
+        // A top-level array is unwrapped; anything else is read as a sequence of root values
+        this.pending = first == JsonToken.START_ARRAY ? null : first;
+        if (first == null) {
+            this.pending = JsonToken.END_ARRAY;
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        JsonToken token = pending != null ? pending : parser.nextToken();
+        pending = null;
+        if (token == null || token == JsonToken.END_ARRAY) {
+            pending = JsonToken.END_ARRAY;
+            return null;
+        }
+        recordNumber++;
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Row " + recordNumber + " is not a JSON object");
+        }
+
+        JsonNode node = parser.readValueAsTree();
+        Map<String, String> record = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            JsonNode value = field.getValue();
+            record.put(field.getKey(), value.isNull() ? null : value.asText());
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
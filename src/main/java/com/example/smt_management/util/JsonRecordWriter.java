@@ -0,0 +1,63 @@
+package com.example.smt_management.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming JSON writer: either one top-level array of objects or newline-delimited
+ * objects (NDJSON). Each record is generated straight into the output.
+ */
+public class JsonRecordWriter implements RecordWriter {
+
+    private final JsonGenerator generator;
+    private final List<String> columns;
+    private final boolean array;
+
+    public JsonRecordWriter(ObjectMapper mapper, OutputStream out, List<String> columns, boolean array)
+            throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.columns = columns;
+        this.array = array;
+        if (array) {
+            generator.writeStartArray();
+        } else {
+            // NDJSON: one object per line, no separator between root values
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    @Override
+    public void write(List<?> values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = values.get(i);
+            generator.writeFieldName(columns.get(i));
+            if (value instanceof Enum<?> constant) {
+                generator.writeString(constant.name());
+            } else {
+                generator.writeObject(value);
+            }
+        }
+        generator.writeEndObject();
+        if (!array) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (array) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
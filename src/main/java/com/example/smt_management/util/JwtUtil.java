@@ -1,41 +1,154 @@
 package com.example.smt_management.util;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.example.smt_management.dtos.TokenClaims;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
+/**
+ * Issues and verifies the signed tokens that carry a user's identity, roles and account
+ * version, so requests can be authenticated without loading the user.
+ * The signing key and parser are built once (both are immutable and thread-safe), and
+ * tokens that verified recently are remembered by their SHA-256 until they expire, so a
+ * client repeating the same token skips the signature check and JSON parse.
+ */
 @Component
 public class JwtUtil {
-	
-	@Value("${jwt.secret}")
-	private String secret;
-	
-	private SecretKey getSigningKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(secret);
-        return Keys.hmacShaKeyFor(decodedKey);
-    }
-	
-	public String generateToken(UserDetails userDetails) {
-		return Jwts.builder().setSubject(userDetails.getUsername()).setIssuedAt(new Date(System.currentTimeMillis()))
-				.setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)).signWith(getSigningKey(), SignatureAlgorithm.HS256).compact();
-	}
-	
+
+	/** Granted authorities, e.g. ROLE_ADMIN */
+	public static final String ROLES_CLAIM = "roles";
+	/** users.token_version at issue time; bumping it revokes every older token */
+	public static final String VERSION_CLAIM = "ver";
+
+	private final SecretKey signingKey;
+	private final JwtParser parser;
+	private final Duration expiration;
+	private final int maxCachedTokens;
+	private final Map<ByteBuffer, TokenClaims> verified = new ConcurrentHashMap<>();
+
+	public JwtUtil(
+			@Value("${jwt.secret:}") String secret,
+			@Value("${jwt.expiration:PT10H}") Duration expiration,
+			@Value("${jwt.verified-cache.max-entries:10000}") int maxCachedTokens) {
+		this.signingKey = signingKey(secret);
+		this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+		this.expiration = expiration;
+		this.maxCachedTokens = maxCachedTokens;
+	}
+
+	public String generateToken(String username, Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
+		long now = System.currentTimeMillis();
+		List<String> roles = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+		return Jwts.builder().setSubject(username).claim(ROLES_CLAIM, roles).claim(VERSION_CLAIM, tokenVersion)
+				.setIssuedAt(new Date(now)).setExpiration(new Date(now + expiration.toMillis()))
+				.signWith(signingKey, SignatureAlgorithm.HS256).compact();
+	}
+
+	/**
+	 * Verify signature and expiry and read the claims, answered from the verified-token
+	 * cache when the same token was seen before and has not expired since
+	 * @throws JwtException if the token is malformed, forged, expired or lacks the role claims
+	 */
+	public TokenClaims parseToken(String token) {
+		if (maxCachedTokens <= 0) {
+			return verify(token);
+		}
+		ByteBuffer key = ByteBuffer.wrap(sha256(token));
+		TokenClaims cached = verified.get(key);
+		Instant now = Instant.now();
+		if (cached != null) {
+			if (now.isBefore(cached.getExpiresAt())) {
+				return cached;
+			}
+			verified.remove(key);
+		}
+		TokenClaims claims = verify(token);
+		if (verified.size() >= maxCachedTokens) {
+			evictExpired(now);
+		}
+		verified.put(key, claims);
+		return claims;
+	}
+
 	public String extractUsername(String token) {
-		return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody().getSubject();
+		return parseToken(token).getUsername();
+	}
+
+	private TokenClaims verify(String token) {
+		Claims claims = parser.parseClaimsJws(token).getBody();
+		List<?> roles = claims.get(ROLES_CLAIM, List.class);
+		Long version = claims.get(VERSION_CLAIM, Long.class);
+		if (claims.getSubject() == null || roles == null || version == null || claims.getExpiration() == null) {
+			// Issued before roles were embedded: the holder has to sign in again
+			throw new JwtException("Token does not carry subject, roles, version and expiry claims");
+		}
+		List<GrantedAuthority> authorities = roles.stream()
+				.map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+				.toList();
+		return new TokenClaims(claims.getSubject(), authorities, version, claims.getExpiration().toInstant());
+	}
+
+	/**
+	 * Make room: expired tokens go first; if every entry is still live the cache starts over
+	 */
+	private void evictExpired(Instant now) {
+		verified.values().removeIf(claims -> !now.isBefore(claims.getExpiresAt()));
+		if (verified.size() >= maxCachedTokens) {
+			verified.clear();
+		}
+	}
+
+	/**
+	 * HS256 key from jwt.secret, checked at startup so a bad secret fails with a clear message
+	 */
+	private static SecretKey signingKey(String secret) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalStateException("jwt.secret is not set: provide a Base64 key in the JWT_SECRET environment variable");
+		}
+		byte[] keyBytes;
+		try {
+			keyBytes = Base64.getDecoder().decode(secret.trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("jwt.secret must be Base64-encoded (e.g. openssl rand -base64 32)", e);
+		}
+		if (keyBytes.length < 32) {
+			throw new IllegalStateException("jwt.secret must decode to at least 32 bytes (256 bits) for HS256, got "
+					+ keyBytes.length);
+		}
+		return Keys.hmacShaKeyFor(keyBytes);
+	}
+
+	private static byte[] sha256(String token) {
+		try {
+			// MessageDigest instances are not thread-safe; creating one is cheap next to an HMAC check
+			return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
 	}
-	
-	 public boolean validateToken(String token, UserDetails userDetails) {
-	        return extractUsername(token).equals(userDetails.getUsername());
-	    }
-	
 
 }
@@ -0,0 +1,23 @@
+package com.example.smt_management.util;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Builds a Slice from a keyset query that fetched one row more than the page size.
+ * The extra row only tells whether there is a next slice, so no COUNT(*) is needed.
+ */
+public final class KeysetSlice {
+
+    private KeysetSlice() {
+    }
+
+    public static <T> Slice<T> of(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+}
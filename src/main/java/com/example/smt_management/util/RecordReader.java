@@ -0,0 +1,17 @@
+package com.example.smt_management.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Forward-only reader of flat records (column name -> text value), one record in memory at a time
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * @return the next record, or null at the end of the input
+     * @throws IOException if the input is malformed or cannot be read
+     */
+    Map<String, String> next() throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.example.smt_management.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Forward-only writer of flat records, values in the column order given when the writer was created
+ */
+public interface RecordWriter extends Closeable {
+
+    void write(List<?> values) throws IOException;
+
+    void flush() throws IOException;
+}
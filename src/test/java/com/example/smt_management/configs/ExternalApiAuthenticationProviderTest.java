@@ -0,0 +1,290 @@
+package com.example.smt_management.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.smt_management.services.VerifiedCredentialCache;
+import com.example.smt_management.util.CircuitBreaker;
+import com.example.smt_management.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ExternalApiAuthenticationProvider against a local stub of the login API that can be
+ * made slow or failing
+ */
+class ExternalApiAuthenticationProviderTest {
+
+	private static final Duration RESPONSE_TIMEOUT = Duration.ofMillis(300);
+	private static final Duration OPEN_DURATION = Duration.ofMillis(500);
+	private static final int FAILURE_THRESHOLD = 3;
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private HttpComponentsClientHttpRequestFactory requestFactory;
+	private SimpleMeterRegistry meterRegistry;
+	private CircuitBreaker circuitBreaker;
+	private ExternalApiAuthenticationProvider provider;
+
+	// Stub behaviour, changed by the tests
+	private volatile int status = 200;
+	private volatile String body = "{\"status\":\"ok\",\"role\":\"admin\"}";
+	private volatile long delayMillis;
+	private final AtomicInteger calls = new AtomicInteger();
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		serverThreads = Executors.newCachedThreadPool();
+		server.setExecutor(serverThreads);
+		server.createContext("/api/login", this::handle);
+		server.start();
+
+		requestFactory = ExternalApiClientConfig.pooledRequestFactory(
+			4, Duration.ofMillis(300), RESPONSE_TIMEOUT, Duration.ofMillis(300), Duration.ofSeconds(30));
+		meterRegistry = new SimpleMeterRegistry();
+		circuitBreaker = new CircuitBreaker("test", FAILURE_THRESHOLD, OPEN_DURATION, 1);
+		provider = provider(credentialCache(false, Duration.ofMinutes(5)));
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		requestFactory.destroy();
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	void acceptedCredentialsCarryTheApiRole() {
+		Authentication result = provider.authenticate(login());
+
+		assertEquals("ROLE_ADMIN", result.getAuthorities().iterator().next().getAuthority());
+		assertEquals(1, outcomes("success"));
+	}
+
+	@Test
+	void refusedCredentialsAreBadCredentialsAndKeepTheCircuitClosed() {
+		body = "{\"status\":\"fail\",\"message\":\"wrong password\"}";
+		for (int i = 0; i < FAILURE_THRESHOLD + 1; i++) {
+			assertThrows(BadCredentialsException.class, () -> provider.authenticate(login()));
+		}
+		status = 401;
+		assertThrows(BadCredentialsException.class, () -> provider.authenticate(login()));
+
+		assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+		assertEquals(FAILURE_THRESHOLD + 2, outcomes("rejected"));
+	}
+
+	@Test
+	void slowApiTimesOutInsteadOfBlocking() {
+		delayMillis = 2_000;
+
+		long start = System.nanoTime();
+		assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(elapsedMillis < 1_500, "login waited " + elapsedMillis + " ms for a stalled API");
+		assertEquals(1, outcomes("timeout"));
+	}
+
+	@Test
+	void repeatedFailuresOpenTheCircuitAndShortCircuitLogins() {
+		status = 503;
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+		int callsBefore = calls.get();
+		assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		assertEquals(callsBefore, calls.get(), "an open circuit must not call the API");
+		assertEquals(1, outcomes("short_circuited"));
+		assertEquals(1.0, meterRegistry.get("external.auth.circuit.state").gauge().value());
+	}
+
+	@Test
+	void halfOpenProbeClosesTheCircuitOnceTheApiRecovers() throws InterruptedException {
+		status = 500;
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		}
+		status = 200;
+		Thread.sleep(OPEN_DURATION.toMillis() + 100);
+
+		provider.authenticate(login());
+
+		assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+	}
+
+	@Test
+	void failedHalfOpenProbeReopensTheCircuit() throws InterruptedException {
+		status = 500;
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		}
+		Thread.sleep(OPEN_DURATION.toMillis() + 100);
+
+		int callsBefore = calls.get();
+		assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		assertEquals(callsBefore + 1, calls.get(), "one probe reaches the API");
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+		assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(login()));
+		assertEquals(callsBefore + 1, calls.get(), "the reopened circuit rejects without calling");
+	}
+
+	@Test
+	void unexpectedErrorInHalfOpenProbeReopensTheCircuit() throws InterruptedException {
+		RestTemplate failing = new RestTemplate(requestFactory);
+		failing.getInterceptors().add((request, requestBody, execution) -> {
+			throw new IllegalStateException("unexpected response shape");
+		});
+		ExternalApiAuthenticationProvider broken = new ExternalApiAuthenticationProvider(failing, circuitBreaker,
+			new ConcurrencyLimiter(4, 100, Duration.ofSeconds(5)), credentialCache(false, Duration.ofMinutes(5)),
+			meterRegistry, "http://127.0.0.1:" + server.getAddress().getPort() + "/api/login");
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class, () -> broken.authenticate(login()));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+		Thread.sleep(OPEN_DURATION.toMillis() + 100);
+
+		// The probe fails the same way: it must settle the breaker, not leave it half-open
+		assertThrows(AuthenticationServiceException.class, () -> broken.authenticate(login()));
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+		Thread.sleep(OPEN_DURATION.toMillis() + 100);
+		provider.authenticate(login());
+		assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+	}
+
+	@Test
+	void sequentialLoginsReuseOnePooledConnection() {
+		for (int i = 0; i < 5; i++) {
+			provider.authenticate(login());
+		}
+
+		assertEquals(5, calls.get());
+		assertEquals(1, clientPorts.size(), "connections opened: " + clientPorts);
+	}
+
+	@Test
+	void repeatLoginIsAnsweredFromVerifiedCredentials() {
+		VerifiedCredentialCache cache = credentialCache(true, Duration.ofMinutes(5));
+		ExternalApiAuthenticationProvider cached = provider(cache);
+
+		cached.authenticate(login());
+		Authentication again = cached.authenticate(login());
+
+		assertEquals(1, calls.get());
+		assertEquals("ROLE_ADMIN", again.getAuthorities().iterator().next().getAuthority());
+		assertEquals(1.0, meterRegistry.get("external.auth.credential-cache.requests").tag("result", "hit")
+			.functionCounter().count());
+	}
+
+	@Test
+	void openCircuitFallsBackToVerifiedCredentialsOnly() {
+		// Nothing is fresh enough to skip the API, so the login below can only come from the fallback
+		VerifiedCredentialCache cache = credentialCache(true, Duration.ZERO);
+		ExternalApiAuthenticationProvider cached = provider(cache);
+		cached.authenticate(login());
+		status = 503;
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class,
+				() -> cached.authenticate(new UsernamePasswordAuthenticationToken("operator2", "other")));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+		// Served locally, but only for the verified password
+		cached.authenticate(login());
+		assertThrows(AuthenticationServiceException.class,
+			() -> cached.authenticate(new UsernamePasswordAuthenticationToken("operator1", "guess")));
+
+		assertEquals(1.0, meterRegistry.get("external.auth.credential-cache.fallbacks").tag("result", "served")
+			.functionCounter().count());
+	}
+
+	@Test
+	void refusedLoginForgetsVerifiedCredentials() {
+		VerifiedCredentialCache cache = credentialCache(true, Duration.ofMinutes(5));
+		ExternalApiAuthenticationProvider cached = provider(cache);
+		cached.authenticate(login());
+
+		body = "{\"status\":\"fail\",\"message\":\"password changed\"}";
+		assertThrows(BadCredentialsException.class,
+			() -> cached.authenticate(new UsernamePasswordAuthenticationToken("operator1", "new-password")));
+		status = 503;
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			assertThrows(AuthenticationServiceException.class,
+				() -> cached.authenticate(new UsernamePasswordAuthenticationToken("operator2", "other")));
+		}
+
+		assertThrows(AuthenticationServiceException.class, () -> cached.authenticate(login()));
+	}
+
+	private ExternalApiAuthenticationProvider provider(VerifiedCredentialCache credentialCache) {
+		return new ExternalApiAuthenticationProvider(new RestTemplate(requestFactory), circuitBreaker,
+			new ConcurrencyLimiter(4, 100, Duration.ofSeconds(5)), credentialCache, meterRegistry,
+			"http://127.0.0.1:" + server.getAddress().getPort() + "/api/login");
+	}
+
+	private VerifiedCredentialCache credentialCache(boolean enabled, Duration ttl) {
+		// Meters bind to the instance that registered them first: drop those of the setUp provider
+		meterRegistry.clear();
+		// Low BCrypt cost keeps the test fast; the application uses the default
+		return new VerifiedCredentialCache(new BCryptPasswordEncoder(4), meterRegistry, enabled,
+			ttl, Duration.ofHours(1), 100);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		calls.incrementAndGet();
+		clientPorts.add(exchange.getRemoteAddress().getPort());
+		exchange.getRequestBody().readAllBytes();
+		if (delayMillis > 0) {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		byte[] response = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, response.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(response);
+		}
+	}
+
+	private long outcomes(String outcome) {
+		return meterRegistry.get("external.auth.requests").tag("outcome", outcome).timer().count();
+	}
+
+	private static UsernamePasswordAuthenticationToken login() {
+		return new UsernamePasswordAuthenticationToken("operator1", "secret\"pass");
+	}
+}
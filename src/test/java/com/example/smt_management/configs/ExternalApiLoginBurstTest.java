@@ -0,0 +1,180 @@
+package com.example.smt_management.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.smt_management.services.VerifiedCredentialCache;
+import com.example.smt_management.util.CircuitBreaker;
+import com.example.smt_management.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Shift-change login storm: 500 logins released at once against a local stub of the
+ * login API that takes a while to answer
+ */
+class ExternalApiLoginBurstTest {
+
+	private static final int LOGINS = 500;
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private ExecutorService loginThreads;
+	private HttpComponentsClientHttpRequestFactory requestFactory;
+	private SimpleMeterRegistry meterRegistry;
+
+	private volatile long delayMillis;
+	private final AtomicInteger calls = new AtomicInteger();
+	private final AtomicInteger concurrent = new AtomicInteger();
+	private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), LOGINS);
+		serverThreads = Executors.newCachedThreadPool();
+		server.setExecutor(serverThreads);
+		server.createContext("/api/login", this::handle);
+		server.start();
+
+		// One thread per login, like the request threads of a busy Tomcat
+		loginThreads = Executors.newFixedThreadPool(LOGINS);
+		requestFactory = ExternalApiClientConfig.pooledRequestFactory(
+			16, Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(30));
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		loginThreads.shutdownNow();
+		requestFactory.destroy();
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	void burstOfDoubleClickedLoginsIsCoalescedAndCapped() throws Exception {
+		delayMillis = 20;
+		ExternalApiAuthenticationProvider provider = provider(new ConcurrencyLimiter(8, LOGINS, Duration.ofSeconds(30)));
+
+		// 250 operators, each submitting the login form twice
+		List<Outcome> outcomes = burst(provider, i -> "operator" + (i / 2));
+
+		long succeeded = outcomes.stream().filter(outcome -> outcome.error() == null).count();
+		double coalesced = meterRegistry.get("external.auth.coalesced").functionCounter().count();
+		assertEquals(LOGINS, succeeded);
+		assertTrue(maxConcurrent.get() <= 8, "API saw " + maxConcurrent.get() + " concurrent calls");
+		assertTrue(coalesced > 0, "no double click was coalesced");
+		assertEquals(LOGINS, calls.get() + (long) coalesced);
+	}
+
+	@Test
+	void fullQueueRefusesLoginsFastWithAClearError() throws Exception {
+		delayMillis = 500;
+		ExternalApiAuthenticationProvider provider = provider(new ConcurrencyLimiter(4, 20, Duration.ofSeconds(30)));
+
+		List<Outcome> outcomes = burst(provider, i -> "operator" + i);
+
+		List<Outcome> refused = outcomes.stream()
+			.filter(outcome -> outcome.error() instanceof AuthenticationServiceException)
+			.filter(outcome -> outcome.error().getMessage().startsWith("Too many logins"))
+			.toList();
+		long succeeded = outcomes.stream().filter(outcome -> outcome.error() == null).count();
+		long slowestRefusalMillis = refused.stream().mapToLong(Outcome::millis).max().orElse(0);
+
+		// 4 running plus 20 queued get through; everyone else is turned away without waiting
+		assertTrue(succeeded >= 24, succeeded + " logins got through");
+		assertEquals(LOGINS - succeeded, refused.size());
+		assertTrue(refused.size() > LOGINS / 2, "only " + refused.size() + " logins were refused");
+		assertTrue(slowestRefusalMillis < delayMillis, "a refused login waited " + slowestRefusalMillis + " ms");
+		assertTrue(maxConcurrent.get() <= 4, "API saw " + maxConcurrent.get() + " concurrent calls");
+	}
+
+	private ExternalApiAuthenticationProvider provider(ConcurrencyLimiter limiter) {
+		return new ExternalApiAuthenticationProvider(new RestTemplate(requestFactory),
+			new CircuitBreaker("burst", 1_000, Duration.ofSeconds(30), 1), limiter,
+			new VerifiedCredentialCache(new BCryptPasswordEncoder(), meterRegistry, false,
+				Duration.ofHours(1), Duration.ofHours(12), 100),
+			meterRegistry,
+			"http://127.0.0.1:" + server.getAddress().getPort() + "/api/login");
+	}
+
+	private List<Outcome> burst(ExternalApiAuthenticationProvider provider, UserNames userNames) throws Exception {
+		CountDownLatch ready = new CountDownLatch(LOGINS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Outcome>> futures = new ArrayList<>();
+		for (int i = 0; i < LOGINS; i++) {
+			String username = userNames.of(i);
+			futures.add(loginThreads.submit(() -> {
+				ready.countDown();
+				start.await();
+				long begin = System.nanoTime();
+				try {
+					provider.authenticate(new UsernamePasswordAuthenticationToken(username, "shift-" + username));
+					return new Outcome(null, (System.nanoTime() - begin) / 1_000_000);
+				} catch (RuntimeException e) {
+					return new Outcome(e, (System.nanoTime() - begin) / 1_000_000);
+				}
+			}));
+		}
+		assertTrue(ready.await(30, TimeUnit.SECONDS));
+		start.countDown();
+
+		List<Outcome> outcomes = new ArrayList<>();
+		for (Future<Outcome> future : futures) {
+			outcomes.add(future.get(60, TimeUnit.SECONDS));
+		}
+		return outcomes;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		calls.incrementAndGet();
+		maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+		try {
+			exchange.getRequestBody().readAllBytes();
+			Thread.sleep(delayMillis);
+			byte[] response = "{\"status\":\"ok\",\"role\":\"operator\"}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			concurrent.decrementAndGet();
+		}
+	}
+
+	@FunctionalInterface
+	private interface UserNames {
+		String of(int login);
+	}
+
+	private record Outcome(RuntimeException error, long millis) {
+	}
+}
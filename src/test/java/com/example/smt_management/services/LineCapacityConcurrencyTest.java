@@ -0,0 +1,99 @@
+package com.example.smt_management.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.smt_management.entities.Floor;
+import com.example.smt_management.entities.Line;
+import com.example.smt_management.entities.Machine;
+import com.example.smt_management.enums.Direction;
+import com.example.smt_management.enums.LaneType;
+import com.example.smt_management.enums.MachineType;
+
+@SpringBootTest
+class LineCapacityConcurrencyTest {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private FloorService floorService;
+
+	@Autowired
+	private LineService lineService;
+
+	@Autowired
+	private MachineService machineService;
+
+	@Test
+	void concurrentSavesNeverExceedLineCap() throws Exception {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+		Floor floor = new Floor();
+		floor.setName("Capacity floor " + suffix);
+		floor = floorService.saveFloor(floor);
+
+		Line line = new Line();
+		line.setLineName("Capacity line " + suffix);
+		line.setLane(LaneType.values()[0]);
+		line.setDirection(Direction.values()[0]);
+		line.setFloorMapping(floor);
+		Long lineId = lineService.saveLine(line).getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				String serial = "CAP-" + suffix + "-" + i;
+				results.add(pool.submit(() -> {
+					start.await();
+					try {
+						machineService.saveMachine(newMachine(serial, lineId));
+						return true;
+					} catch (IllegalStateException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			int saved = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get()) {
+					saved++;
+				}
+			}
+
+			assertEquals(Line.MAX_MACHINES, saved);
+			assertEquals((long) Line.MAX_MACHINES, lineService.countMachines(lineId));
+		} finally {
+			pool.shutdownNow();
+			floorService.cascadeDeleteFloor(floor.getId());
+		}
+	}
+
+	private static Machine newMachine(String serial, Long lineId) {
+		Line lineRef = new Line();
+		lineRef.setId(lineId);
+
+		Machine machine = new Machine();
+		machine.setMachineSerial(serial);
+		machine.setModel("Load model");
+		machine.setType(MachineType.TYPE_A);
+		machine.setYearOfManufacturing(2020);
+		machine.setManufacturingCompany("Load Co");
+		machine.setLineMapping(lineRef);
+		return machine;
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.smt_management.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.smt_management.configs.JwtFilter;
+import com.example.smt_management.entities.ERole;
+import com.example.smt_management.entities.User;
+import com.example.smt_management.repositories.RoleRepository;
+import com.example.smt_management.repositories.UserRepository;
+import com.example.smt_management.util.JwtUtil;
+
+@SpringBootTest
+class TokenRevocationCacheTest {
+
+	@Autowired
+	private JwtFilter jwtFilter;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserAccountService userAccountService;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void deletingALocalUserRejectsTheirToken() throws Exception {
+		String username = "revoked-" + UUID.randomUUID().toString().substring(0, 8);
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("{noop}unused");
+		userRepository.save(user);
+		String token = jwtUtil.generateToken(username, List.of(new SimpleGrantedAuthority("ROLE_OPERATOR")), 0);
+
+		assertEquals(username, authenticate(token).getName());
+
+		userRepository.delete(user);
+
+		assertNull(authenticate(token), "token of a deleted user was accepted");
+	}
+
+	@Test
+	void signedTokenWithoutAUserRowIsRejected() throws Exception {
+		String username = "unknown-" + UUID.randomUUID().toString().substring(0, 8);
+		String token = jwtUtil.generateToken(username, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), 0);
+
+		assertNull(authenticate(token), "token without a users row was accepted");
+	}
+
+	@Test
+	void externalLoginGetsAShadowRowItsTokenIsCheckedAgainst() throws Exception {
+		String username = "external-" + UUID.randomUUID().toString().substring(0, 8);
+		List<SimpleGrantedAuthority> granted = List.of(new SimpleGrantedAuthority("ROLE_OPERATOR"));
+		User account = userAccountService.recordLogin(username, granted);
+		String token = jwtUtil.generateToken(username, granted, account.getTokenVersion());
+
+		assertEquals(username, authenticate(token).getName());
+
+		userRepository.deleteById(username);
+
+		assertNull(authenticate(token), "token of a deleted external user was accepted");
+	}
+
+	@Test
+	void demotingAUserRejectsTheirOldToken() throws Exception {
+		String username = "demoted-" + UUID.randomUUID().toString().substring(0, 8);
+		List<SimpleGrantedAuthority> admin = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+		User account = userAccountService.recordLogin(username, admin);
+		String adminToken = jwtUtil.generateToken(username, admin, account.getTokenVersion());
+		assertEquals("ROLE_ADMIN", authenticate(adminToken).getAuthorities().iterator().next().getAuthority());
+
+		User user = userRepository.findById(username).orElseThrow();
+		user.setRoles(new HashSet<>(Set.of(roleRepository.findByName(ERole.ROLE_OPERATOR).orElseThrow())));
+		userRepository.save(user);
+
+		assertNull(authenticate(adminToken), "token issued before the demotion still granted ROLE_ADMIN");
+		String operatorToken = jwtUtil.generateToken(username, List.of(new SimpleGrantedAuthority("ROLE_OPERATOR")),
+			userRepository.findById(username).orElseThrow().getTokenVersion());
+		assertEquals(username, authenticate(operatorToken).getName());
+	}
+
+	@Test
+	void deactivatingAUserRejectsTheirToken() throws Exception {
+		String username = "deactivated-" + UUID.randomUUID().toString().substring(0, 8);
+		List<SimpleGrantedAuthority> operator = List.of(new SimpleGrantedAuthority("ROLE_OPERATOR"));
+		String token = jwtUtil.generateToken(username, operator,
+			userAccountService.recordLogin(username, operator).getTokenVersion());
+
+		User user = userRepository.findById(username).orElseThrow();
+		user.setActive(false);
+		userRepository.save(user);
+
+		assertNull(authenticate(token), "token of a deactivated user was accepted");
+	}
+
+	private Authentication authenticate(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader("Authorization", "Bearer " + token);
+		jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}